@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the artifact set operations of {@link DefaultProjectDependencyAnalyzer#analyze(
+ * org.apache.maven.project.MavenProject)} on BOM-heavy projects: half of the declared artifacts are used, and as many
+ * undeclared artifacts are used, a third of the used artifacts only by test classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArtifactSetsBenchmark {
+
+    @Param({"100", "1500"})
+    private int artifactCount;
+
+    private Set<Artifact> declaredArtifacts;
+
+    private Set<Artifact> usedArtifacts;
+
+    private Set<Artifact> mainArtifacts;
+
+    private Set<Artifact> testArtifacts;
+
+    @Setup
+    public void setUp() {
+        declaredArtifacts = new LinkedHashSet<>();
+        usedArtifacts = new LinkedHashSet<>();
+        mainArtifacts = new LinkedHashSet<>();
+        testArtifacts = new LinkedHashSet<>();
+
+        for (int i = 0; i < artifactCount; i++) {
+            declaredArtifacts.add(anArtifact("declared" + i));
+            // used artifacts are resolved from the classpath, so they are distinct instances of the declared ones
+            Artifact used = anArtifact(i % 2 == 0 ? "declared" + i : "undeclared" + i);
+            usedArtifacts.add(used);
+            (i % 3 == 0 ? testArtifacts : mainArtifacts).add(used);
+        }
+    }
+
+    @Benchmark
+    public void removeAll(Blackhole blackhole) {
+        ArtifactSets artifactSets = new ArtifactSets();
+        blackhole.consume(artifactSets.removeAll(testArtifacts, mainArtifacts));
+        blackhole.consume(artifactSets.removeAll(usedArtifacts, declaredArtifacts));
+        blackhole.consume(artifactSets.removeAll(declaredArtifacts, usedArtifacts));
+    }
+
+    private static Artifact anArtifact(String artifactId) {
+        return new DefaultArtifact(
+                "benchmark", artifactId, VersionRange.createFromVersion("1.0"), "compile", "jar", "", null);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Input data shared by the benchmarks: real class files taken from the benchmark classpath and synthetic JAR files.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+        // private constructor for utility class
+    }
+
+    /**
+     * Gets the JAR file or directory a class has been loaded from.
+     *
+     * @param type a class
+     * @return the JAR file or directory
+     */
+    public static File locationOf(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the byte code of a class.
+     *
+     * @param type a class
+     * @return the content of the class file
+     */
+    public static byte[] byteCodeOf(Class<?> type) {
+        String resource = "/" + type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            byte[] buffer = new byte[8192];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int i;
+            while ((i = in.read(buffer)) > 0) {
+                out.write(buffer, 0, i);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Extracts the class files of a JAR file into a directory.
+     *
+     * @param jar       the JAR file
+     * @param directory the directory
+     * @throws IOException if an I/O error occurs
+     */
+    public static void extractClasses(File jar, Path directory) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    Path file = directory.resolve(entry.getName());
+                    Files.createDirectories(file.getParent());
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        Files.copy(in, file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a JAR file with empty class files.
+     *
+     * @param jar        the JAR file to create
+     * @param classNames the names of the classes
+     * @return the JAR file
+     * @throws IOException if an I/O error occurs
+     */
+    public static File createJar(Path jar, Stream<String> classNames) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String className : (Iterable<String>) classNames::iterator) {
+                out.putNextEntry(new ZipEntry(className.replace('.', '/') + ".class"));
+            }
+        }
+        return jar.toFile();
+    }
+
+    /**
+     * Deletes a directory recursively.
+     *
+     * @param directory the directory
+     * @throws IOException if an I/O error occurs
+     */
+    public static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) walk.sorted((a, b) -> b.compareTo(a))::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
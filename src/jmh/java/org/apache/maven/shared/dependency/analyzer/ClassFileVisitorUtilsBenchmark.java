@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.asm.DependencyClassFileVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ClassFileVisitorUtils#accept(URL, ClassFileVisitor)} on the maven-core JAR file and on its classes
+ * extracted to a directory, both only collecting the class names as done for dependencies and visiting the byte code
+ * as done for the project classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassFileVisitorUtilsBenchmark {
+
+    @Param({"jar", "directory"})
+    private String layout;
+
+    private Path directory;
+
+    private URL url;
+
+    @Setup
+    public void setUp() throws IOException {
+        File jar = BenchmarkSupport.locationOf(MavenProject.class);
+        if ("jar".equals(layout)) {
+            url = jar.toURI().toURL();
+        } else {
+            directory = Files.createTempDirectory("classes");
+            BenchmarkSupport.extractClasses(jar, directory);
+            url = directory.toUri().toURL();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (directory != null) {
+            BenchmarkSupport.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public Set<String> collectClasses() throws IOException {
+        CollectorClassFileVisitor visitor = new CollectorClassFileVisitor();
+        ClassFileVisitorUtils.accept(url, visitor);
+        return visitor.getClasses();
+    }
+
+    @Benchmark
+    public Set<DependencyUsage> visitDependencies() throws IOException {
+        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
+        ClassFileVisitorUtils.accept(url, visitor);
+        return visitor.getDependencyUsages();
+    }
+}
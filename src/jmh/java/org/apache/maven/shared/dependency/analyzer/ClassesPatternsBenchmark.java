@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ClassesPatterns#isMatch(String)} with a growing number of patterns, mixing package prefixes,
+ * exact class names and regular expressions as typically configured in <code>ignoredUnusedDeclaredDependencies</code>
+ * like settings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassesPatternsBenchmark {
+
+    private static final String[] CLASS_NAMES = {
+        "org.apache.maven.project.MavenProject",
+        "org.objectweb.asm.ClassReader",
+        "java.util.concurrent.ConcurrentHashMap",
+        "com.example.p7.Service$Inner",
+        "com.example.p199.Generated_Class199",
+        "io.example.test.Test2"
+    };
+
+    @Param({"0", "10", "200"})
+    private int patternCount;
+
+    private ClassesPatterns patterns;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> values = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    values.add("com\\.example\\.p" + i + "\\..*");
+                    break;
+                case 1:
+                    values.add("com.example.p" + i + ".Service");
+                    break;
+                default:
+                    values.add("com\\.example\\.p" + i + "\\.Generated_.*Class\\d+");
+                    break;
+            }
+        }
+        patterns = new ClassesPatterns(values);
+    }
+
+    @Benchmark
+    public boolean isMatch() {
+        String className = CLASS_NAMES[next];
+        next = (next + 1) % CLASS_NAMES.length;
+        return patterns.isMatch(className);
+    }
+}
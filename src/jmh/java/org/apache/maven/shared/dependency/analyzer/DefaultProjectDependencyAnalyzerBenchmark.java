@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks {@link DefaultProjectDependencyAnalyzer#analyze(MavenProject)} on a synthetic project: the main classes
+ * of the project are the classes of this library and its test classes are the benchmark and test classes. The
+ * dependencies are the real JAR files of ASM, Maven and SLF4J, plus a number of generated JAR files of 200 classes
+ * each that are never used, half of them declared.
+ * <p>
+ * The classes of the dependency JAR files are either listed on every analysis, or read from a warm
+ * {@link FileClassIndexCache}, either all of them or lazily, only for the JAR files whose packages are used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultProjectDependencyAnalyzerBenchmark {
+
+    private static final int CLASSES_PER_JAR = 200;
+
+    @Param({"10", "100", "500"})
+    private int dependencyCount;
+
+    @Param({"listed", "cached", "lazy"})
+    private String indexing;
+
+    private Path directory;
+
+    private MavenProject project;
+
+    private DefaultProjectDependencyAnalyzer analyzer;
+
+    private AnalysisOptions options;
+
+    @Setup
+    public void setUp() throws IOException, ProjectDependencyAnalyzerException {
+        directory = Files.createTempDirectory("dependencies");
+
+        Set<Artifact> artifacts = new LinkedHashSet<>();
+        Set<Artifact> declaredArtifacts = new LinkedHashSet<>();
+        Class<?>[] usedTypes = {ClassReader.class, MavenProject.class, Artifact.class, Model.class, LoggerFactory.class};
+        for (Class<?> type : usedTypes) {
+            Artifact artifact = anArtifact(type.getPackage().getName(), BenchmarkSupport.locationOf(type));
+            artifacts.add(artifact);
+            declaredArtifacts.add(artifact);
+        }
+        for (int i = 0; i < dependencyCount; i++) {
+            String artifactId = "dependency" + i;
+            File jar = BenchmarkSupport.createJar(
+                    directory.resolve(artifactId + ".jar"),
+                    IntStream.range(0, CLASSES_PER_JAR).mapToObj(j -> artifactId + ".p" + j % 10 + ".C" + j));
+            Artifact artifact = anArtifact(artifactId, jar);
+            artifacts.add(artifact);
+            if (i % 2 == 0) {
+                declaredArtifacts.add(artifact);
+            }
+        }
+
+        project = new MavenProject();
+        project.setArtifacts(artifacts);
+        project.setDependencyArtifacts(declaredArtifacts);
+        project.getBuild()
+                .setOutputDirectory(
+                        BenchmarkSupport.locationOf(DefaultProjectDependencyAnalyzer.class).getPath());
+        project.getBuild()
+                .setTestOutputDirectory(BenchmarkSupport.locationOf(BenchmarkSupport.class).getPath());
+
+        ASMDependencyAnalyzer dependencyAnalyzer = new ASMDependencyAnalyzer();
+        MainDependencyClassesProvider mainProvider = (p, excludedClasses) -> dependencyAnalyzer.analyzeUsages(
+                new File(p.getBuild().getOutputDirectory()).toURI().toURL(), excludedClasses);
+        TestDependencyClassesProvider testProvider = (p, excludedClasses) -> dependencyAnalyzer.analyzeUsages(
+                new File(p.getBuild().getTestOutputDirectory()).toURI().toURL(), excludedClasses);
+
+        analyzer = new DefaultProjectDependencyAnalyzer(
+                new DefaultClassAnalyzer(),
+                Collections.singletonList(mainProvider),
+                Collections.singletonList(testProvider));
+
+        options = new AnalysisOptions();
+        if (!"listed".equals(indexing)) {
+            ClassIndexCache cache = new FileClassIndexCache(directory.resolve("class-index").toFile());
+            options = options.withClassIndexCache(cache).withLazyIndexing("lazy".equals(indexing));
+            // warm the cache
+            analyzer.analyze(project, null, options);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSupport.delete(directory);
+    }
+
+    @Benchmark
+    public ProjectDependencyAnalysis analyze() throws ProjectDependencyAnalyzerException {
+        return analyzer.analyze(project, null, options);
+    }
+
+    private static Artifact anArtifact(String artifactId, File file) {
+        Artifact artifact = new DefaultArtifact(
+                "benchmark", artifactId, VersionRange.createFromVersion("1.0"), "compile", "jar", "", null);
+        artifact.setFile(file);
+        return artifact;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.dependency.analyzer.BenchmarkSupport;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ConstantPoolParser#getConstantPoolClassReferences(byte[])} on a small and a huge class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstantPoolParserBenchmark {
+
+    @Param({"small", "huge"})
+    private String classFile;
+
+    private byte[] byteCode;
+
+    @Setup
+    public void setUp() {
+        // ClassReader is the largest class of ASM
+        byteCode = BenchmarkSupport.byteCodeOf("small".equals(classFile) ? DependencyUsage.class : ClassReader.class);
+    }
+
+    @Benchmark
+    public Set<String> getConstantPoolClassReferences() throws UnknownConstantPoolTypeException {
+        return ConstantPoolParser.getConstantPoolClassReferences(byteCode);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.concurrent.Executor;
+
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
+
+/**
+ * Options of an analysis by {@link DefaultProjectDependencyAnalyzer}, given per call so that a single analyzer may run
+ * concurrent analyses with different options, e.g. for the modules of a parallel build.
+ * <p>
+ * Options are immutable: the <code>with</code> methods return a copy with the given option changed.
+ */
+public final class AnalysisOptions {
+
+    private final int targetRelease;
+
+    private final Executor executor;
+
+    private final ClassIndexCache classIndexCache;
+
+    private final boolean incremental;
+
+    private final boolean skipCode;
+
+    private final boolean lazyIndexing;
+
+    /**
+     * Creates the default options.
+     */
+    public AnalysisOptions() {
+        this(0, null, null, false, false, false);
+    }
+
+    private AnalysisOptions(
+            int targetRelease,
+            Executor executor,
+            ClassIndexCache classIndexCache,
+            boolean incremental,
+            boolean skipCode,
+            boolean lazyIndexing) {
+        this.targetRelease = targetRelease;
+        this.executor = executor;
+        this.classIndexCache = classIndexCache;
+        this.incremental = incremental;
+        this.skipCode = skipCode;
+        this.lazyIndexing = lazyIndexing;
+    }
+
+    /**
+     * Gets the release the classes of multi-release JAR files are listed for.
+     *
+     * @return the release, or <code>0</code> for all releases
+     * @see #withTargetRelease(int)
+     */
+    public int getTargetRelease() {
+        return targetRelease;
+    }
+
+    /**
+     * Sets the release the classes of multi-release JAR files are listed for. The versioned entries of a multi-release
+     * JAR file, such as <code>META-INF/versions/11/com/acme/Foo.class</code>, are folded onto the class they are a
+     * version of, <code>com.acme.Foo</code>, unless they are for a release later than the target release. The class
+     * names listed for a target release are cached separately from those of other target releases.
+     *
+     * @param targetRelease the release, such as <code>11</code>, or <code>0</code> to fold the versioned entries of
+     *     all releases, the default
+     * @return the options with the target release
+     */
+    public AnalysisOptions withTargetRelease(int targetRelease) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+
+    /**
+     * Gets the executor used to index dependency artifacts and scan project classes in parallel.
+     *
+     * @return the executor, or <code>null</code> to analyze sequentially
+     * @see #withExecutor(Executor)
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used to index dependency artifacts in parallel, to run the main and test
+     * {@link DependencyClassesProvider}s concurrently and to scan the project classes in parallel, for example a
+     * bounded {@link java.util.concurrent.ForkJoinPool} or, on Java 21 and later, a virtual thread per task executor.
+     * The executor is not shut down by the analyzer. Results do not depend on whether an executor is used.
+     *
+     * @param executor the executor, or <code>null</code> to analyze sequentially, the default
+     * @return the options with the executor
+     */
+    public AnalysisOptions withExecutor(Executor executor) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+
+    /**
+     * Gets the cache of the classes contained in dependency JAR files.
+     *
+     * @return the cache, or <code>null</code> to always list JAR files
+     * @see #withClassIndexCache(ClassIndexCache)
+     */
+    public ClassIndexCache getClassIndexCache() {
+        return classIndexCache;
+    }
+
+    /**
+     * Sets the cache the classes contained in dependency JAR files are looked up in before listing them. A cache may
+     * be shared by concurrent analyses.
+     *
+     * @param classIndexCache the cache, or <code>null</code> to always list JAR files, the default
+     * @return the options with the cache
+     */
+    public AnalysisOptions withClassIndexCache(ClassIndexCache classIndexCache) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+
+    /**
+     * Tells whether the usages of unchanged project classes are reused from the previous analysis.
+     *
+     * @return <code>true</code> if project class directories are analyzed incrementally
+     * @see #withIncremental(boolean)
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Sets whether the usages of unchanged project classes are reused from the previous analysis, as recorded in the
+     * state file {@link ASMDependencyAnalyzer} keeps next to each class directory.
+     *
+     * @param incremental <code>true</code> to analyze project class directories incrementally, <code>false</code> to
+     *     analyze all their classes, the default
+     * @return the options with the incremental mode
+     */
+    public AnalysisOptions withIncremental(boolean incremental) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+
+    /**
+     * Tells whether the code of project methods is skipped.
+     *
+     * @return <code>true</code> if only signatures and annotations are analyzed
+     * @see #withSkipCode(boolean)
+     */
+    public boolean isSkipCode() {
+        return skipCode;
+    }
+
+    /**
+     * Sets whether the code of project methods is skipped, so that only the classes used in signatures, annotations
+     * and constant pools are found. Skipping code is faster but misses the classes that are only used by
+     * instructions, such as the types of local variables.
+     *
+     * @param skipCode <code>true</code> to skip method code, <code>false</code> to analyze it, the default
+     * @return the options with the skip code mode
+     */
+    public AnalysisOptions withSkipCode(boolean skipCode) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+
+    /**
+     * Tells whether dependency JAR files are indexed by their packages only until one of their classes is looked up.
+     *
+     * @return <code>true</code> if dependency JAR files are indexed lazily
+     * @see #withLazyIndexing(boolean)
+     */
+    public boolean isLazyIndexing() {
+        return lazyIndexing;
+    }
+
+    /**
+     * Sets whether dependency JAR files are indexed by their packages only until one of their classes is looked up.
+     * The packages of a JAR file are read from the {@link #withClassIndexCache(ClassIndexCache) class index cache},
+     * and its classes are only read once a used class of one of its packages is looked up, so that JAR files none of
+     * whose packages are used are reported as unused without reading their classes. JAR files not in the cache yet are
+     * listed and cached as usual, so lazy indexing has no effect without a cache. Results do not depend on whether
+     * JAR files are indexed lazily.
+     *
+     * @param lazyIndexing <code>true</code> to index dependency JAR files lazily, <code>false</code> to read the
+     *     classes of all dependency JAR files before the analysis, the default
+     * @return the options with the lazy indexing mode
+     */
+    public AnalysisOptions withLazyIndexing(boolean lazyIndexing) {
+        return new AnalysisOptions(targetRelease, executor, classIndexCache, incremental, skipCode, lazyIndexing);
+    }
+}
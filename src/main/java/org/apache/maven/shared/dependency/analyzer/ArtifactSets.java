@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Set operations on artifacts comparing their dependency conflict ids, i.e. ignoring their versions, as there can be
+ * only one version of a given artifact in a project anyway.
+ * <p>
+ * {@link Artifact#getDependencyConflictId()} builds a new string on every call, so the conflict id of every artifact
+ * is computed once and kept for the lifetime of the instance, which should not outlive the analysis it is created for.
+ * It is not safe for concurrent use.
+ */
+final class ArtifactSets {
+
+    private final Map<Artifact, String> conflictIds = new IdentityHashMap<>();
+
+    /**
+     * Removes artifacts from a set.
+     *
+     * @param start  initial set
+     * @param remove artifacts to exclude
+     * @return a new set with the artifacts of the initial set, in the same order, whose conflict id is not the conflict
+     *     id of an excluded artifact
+     */
+    Set<Artifact> removeAll(Set<Artifact> start, Collection<Artifact> remove) {
+        Set<String> removedConflictIds = new HashSet<>(remove.size() * 4 / 3 + 1);
+        for (Artifact artifact : remove) {
+            removedConflictIds.add(conflictId(artifact));
+        }
+
+        Set<Artifact> results = new LinkedHashSet<>(start.size() * 4 / 3 + 1);
+        for (Artifact artifact : start) {
+            if (!removedConflictIds.contains(conflictId(artifact))) {
+                results.add(artifact);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Gets the conflict id of an artifact.
+     *
+     * @param artifact the artifact
+     * @return the conflict id of the artifact
+     */
+    String conflictId(Artifact artifact) {
+        return conflictIds.computeIfAbsent(artifact, Artifact::getDependencyConflictId);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DependencyAnalyzer} memoizing the usages of JAR files analyzed by another analyzer in a directory, which may
+ * be shared by several builds, so that the bytecode of a dependency JAR file is analyzed once per content.
+ * <p>
+ * An entry is identified by the SHA-256 hash of the JAR file content and the mode of the other analyzer, i.e. its
+ * class and whether it skips method bodies, and holds the usages of all classes of the JAR file, the excluded classes
+ * being filtered when the entry is read. Directories are always analyzed by the other analyzer.
+ *
+ * @see DefaultProjectDependencyAnalyzer#analyzeReachableArtifacts(org.apache.maven.project.MavenProject,
+ *     java.util.Collection, DependencyAnalyzer)
+ */
+public class CachingDependencyAnalyzer implements DependencyAnalyzer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDependencyAnalyzer.class);
+
+    private static final String FORMAT = "dependency-usages-2";
+
+    private final DependencyAnalyzer delegate;
+
+    private final Path directory;
+
+    /**
+     * Mode of the other analyzer, as the usages found for a JAR file depend on it.
+     */
+    private final String mode;
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param delegate  the analyzer of JAR files not in the cache, e.g. an
+     *                  {@link org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer}
+     * @param directory the directory to store the usages in
+     */
+    public CachingDependencyAnalyzer(DependencyAnalyzer delegate, File directory) {
+        this.delegate = delegate;
+        this.directory = directory.toPath();
+        this.mode = getMode(delegate);
+    }
+
+    @Override
+    public Set<DependencyUsage> analyzeUsages(URL url, ClassesPatterns excludeClasses) throws IOException {
+        Path jar = toLocalJarFile(url);
+        if (jar == null) {
+            return delegate.analyzeUsages(url, excludeClasses);
+        }
+
+        Path entry = directory.resolve(
+                FileClassIndexCache.hash(jar) + '-' + Integer.toHexString(mode.hashCode()) + ".usages");
+
+        Set<DependencyUsage> usages = read(entry, mode);
+        if (usages == null) {
+            usages = new HashSet<>(delegate.analyzeUsages(url, new ClassesPatterns()));
+            write(entry, mode, usages);
+        }
+
+        usages.removeIf(usage -> excludeClasses.isMatch(usage.getUsedBy()));
+        return usages;
+    }
+
+    private static String getMode(DependencyAnalyzer delegate) {
+        String mode = delegate.getClass().getName();
+        if (delegate instanceof ASMDependencyAnalyzer && ((ASMDependencyAnalyzer) delegate).isSkipCode()) {
+            mode += " skip-code";
+        }
+        return mode;
+    }
+
+    private static Path toLocalJarFile(URL url) {
+        if (!"file".equals(url.getProtocol()) || !url.getPath().endsWith(".jar")) {
+            return null;
+        }
+        try {
+            Path path = new File(url.toURI()).toPath();
+            return Files.isRegularFile(path) ? path : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads an entry, made of the mode of the other analyzer followed by a line per class with the class name followed
+     * by the names of its dependency classes.
+     */
+    private static Set<DependencyUsage> read(Path entry, String mode) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(entry, StandardCharsets.UTF_8);
+            if (lines.size() < 2 || !FORMAT.equals(lines.get(0)) || !mode.equals(lines.get(1))) {
+                return null;
+            }
+
+            Set<DependencyUsage> usages = new HashSet<>();
+            for (int i = 2; i < lines.size(); i++) {
+                String[] classNames = lines.get(i).split(" ");
+                for (int j = 1; j < classNames.length; j++) {
+                    usages.add(new DependencyUsage(classNames[j], classNames[0]));
+                }
+            }
+            return usages;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Cannot read dependency usages cache entry {}: {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path entry, String mode, Set<DependencyUsage> usages) {
+        Map<String, Set<String>> dependencyClasses = new LinkedHashMap<>();
+        for (DependencyUsage usage : usages) {
+            dependencyClasses
+                    .computeIfAbsent(usage.getUsedBy(), k -> new TreeSet<>())
+                    .add(usage.getDependencyClass());
+        }
+
+        StringBuilder content = new StringBuilder(FORMAT).append('\n').append(mode);
+        for (Map.Entry<String, Set<String>> classEntry : dependencyClasses.entrySet()) {
+            content.append('\n').append(classEntry.getKey());
+            for (String dependencyClass : classEntry.getValue()) {
+                content.append(' ').append(dependencyClass);
+            }
+        }
+
+        try {
+            Files.createDirectories(directory);
+            // entries are identified by content, so concurrent writers write the same entry
+            Path tempFile = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempFile, content.toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot write dependency usages cache entry {}: {}", entry, e.getMessage());
+        }
+    }
+}
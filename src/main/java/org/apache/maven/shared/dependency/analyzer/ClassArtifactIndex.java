@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Index of the artifact containing each class, organized by package.
+ * <p>
+ * Every package maps to the artifacts containing classes of that package, in classpath order, and every such artifact
+ * keeps the sorted names of its classes in the package in an array. Most packages are contained in a single artifact,
+ * so a lookup usually hashes the package name and searches one sorted array, and the index stores one array slot per
+ * class instead of a hash map entry per class name.
+ * <p>
+ * As on the classpath, the first artifact containing a class wins.
+ * <p>
+ * An artifact may be added by its packages only, in which case its classes are listed on the first lookup of a class
+ * of one of its packages, so that artifacts none of whose packages are referenced are never listed.
+ * <p>
+ * The index is filled artifact by artifact in classpath order, then queried. It is not safe for concurrent use.
+ */
+final class ClassArtifactIndex {
+
+    private static final Owner[] NO_OWNERS = {};
+
+    /**
+     * Lists the classes of an artifact added by its packages.
+     */
+    @FunctionalInterface
+    interface ClassLister {
+        /**
+         * Lists the classes of the artifact.
+         *
+         * @param action the action receiving the class names
+         * @throws IOException if the artifact cannot be read
+         */
+        void forEachClass(Consumer<String> action) throws IOException;
+    }
+
+    /**
+     * The owners of the packages of an artifact added by its packages, until its classes are listed.
+     */
+    private static final class PendingClasses {
+        private final ClassLister lister;
+
+        private final Map<String, Owner> owners = new HashMap<>();
+
+        PendingClasses(ClassLister lister) {
+            this.lister = lister;
+        }
+
+        void list() {
+            for (Owner owner : owners.values()) {
+                owner.pendingClasses = null;
+            }
+
+            try {
+                // classes of other packages than those the artifact was added with cannot be looked up
+                lister.forEachClass(className -> {
+                    Owner owner = owners.get(packageOf(className));
+                    if (owner != null) {
+                        owner.add(className);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * An artifact containing classes of a package.
+     */
+    private static final class Owner {
+        private final Artifact artifact;
+
+        private String[] classNames = new String[8];
+
+        private int size;
+
+        private boolean sorted = true;
+
+        private PendingClasses pendingClasses;
+
+        Owner(Artifact artifact) {
+            this.artifact = artifact;
+        }
+
+        void add(String className) {
+            if (size == classNames.length) {
+                classNames = Arrays.copyOf(classNames, Math.max(size * 2, 8));
+            }
+            if (size > 0 && classNames[size - 1].compareTo(className) > 0) {
+                sorted = false;
+            }
+            classNames[size++] = className;
+        }
+
+        boolean contains(String className) {
+            if (pendingClasses != null) {
+                pendingClasses.list();
+            }
+            if (!sorted) {
+                classNames = Arrays.copyOf(classNames, size);
+                Arrays.sort(classNames);
+                sorted = true;
+            }
+            return Arrays.binarySearch(classNames, 0, size, className) >= 0;
+        }
+    }
+
+    private final Map<String, Owner[]> packages = new HashMap<>();
+
+    /**
+     * The package and artifact of the last added class, as classes are mostly listed package by package.
+     */
+    private String lastPackage;
+
+    private Artifact lastArtifact;
+
+    private Owner lastOwner;
+
+    /**
+     * Adds a class of an artifact.
+     *
+     * @param className the class name
+     * @param artifact  the artifact containing the class
+     */
+    void put(String className, Artifact artifact) {
+        int packageLength = Math.max(className.lastIndexOf('.'), 0);
+
+        if (lastArtifact != artifact || lastPackage.length() != packageLength || !className.startsWith(lastPackage)) {
+            lastPackage = className.substring(0, packageLength);
+            lastArtifact = artifact;
+            lastOwner = ownerOf(lastPackage, artifact);
+        }
+
+        // a class already contained in a previous artifact is shadowed by it on lookup
+        lastOwner.add(className);
+    }
+
+    /**
+     * Adds an artifact by its packages, its classes being listed on the first lookup of a class of one of them.
+     *
+     * @param packageNames the packages of the classes of the artifact, empty for the default package
+     * @param artifact     the artifact
+     * @param lister       the lister of the classes of the artifact
+     */
+    void putPackages(Collection<String> packageNames, Artifact artifact, ClassLister lister) {
+        PendingClasses pendingClasses = new PendingClasses(lister);
+
+        for (String packageName : packageNames) {
+            Owner owner = ownerOf(packageName, artifact);
+            if (owner.size == 0 && owner.pendingClasses == null) {
+                owner.pendingClasses = pendingClasses;
+                pendingClasses.owners.put(packageName, owner);
+            }
+        }
+    }
+
+    /**
+     * Gets the artifact containing a class.
+     *
+     * @param className the class name
+     * @return the first artifact on the classpath containing the class, or <code>null</code> if no artifact contains
+     *     the class
+     * @throws UncheckedIOException if an artifact added by its packages cannot be listed
+     */
+    Artifact get(String className) {
+        Owner[] owners = packages.get(packageOf(className));
+
+        if (owners != null) {
+            for (Owner owner : owners) {
+                if (owner.contains(className)) {
+                    return owner.artifact;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the package of a class.
+     *
+     * @param className the class name
+     * @return the package name, empty for the default package
+     */
+    static String packageOf(String className) {
+        return className.substring(0, Math.max(className.lastIndexOf('.'), 0));
+    }
+
+    /**
+     * Gets the packages of classes.
+     *
+     * @param classNames the class names
+     * @return the package names, empty for the default package
+     */
+    static Set<String> packagesOf(Collection<String> classNames) {
+        Set<String> packageNames = new HashSet<>();
+        String lastPackage = null;
+
+        for (String className : classNames) {
+            int packageLength = Math.max(className.lastIndexOf('.'), 0);
+            // class names are mostly listed package by package
+            if (lastPackage == null || lastPackage.length() != packageLength || !className.startsWith(lastPackage)) {
+                lastPackage = className.substring(0, packageLength);
+                packageNames.add(lastPackage);
+            }
+        }
+
+        return packageNames;
+    }
+
+    private Owner ownerOf(String packageName, Artifact artifact) {
+        Owner[] owners = packages.getOrDefault(packageName, NO_OWNERS);
+
+        for (Owner owner : owners) {
+            if (owner.artifact == artifact) {
+                return owner;
+            }
+        }
+
+        Owner owner = new Owner(artifact);
+        owners = Arrays.copyOf(owners, owners.length + 1);
+        owners[owners.length - 1] = owner;
+        packages.put(packageName, owners);
+        return owner;
+    }
+}
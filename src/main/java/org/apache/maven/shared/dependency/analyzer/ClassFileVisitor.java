@@ -18,6 +18,7 @@
  */
 package org.apache.maven.shared.dependency.analyzer;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 /**
@@ -28,4 +29,51 @@ import java.io.InputStream;
 public interface ClassFileVisitor {
 
     void visitClass(String className, InputStream in);
+
+    /**
+     * Visits a class whose byte code has already been read into memory.
+     * <p>
+     * {@link ClassFileVisitorUtils} reads the byte code of every class file into an array of the exact size and calls
+     * this method, unless {@link #isByteCodeRequired()} is <code>false</code>. The default implementation delegates
+     * to {@link #visitClass(String, InputStream)}.
+     *
+     * @param className the name of the class being visited
+     * @param byteCode the byte code of the class, which must not be modified
+     */
+    default void visitByteCode(String className, byte[] byteCode) {
+        visitClass(className, new ByteArrayInputStream(byteCode));
+    }
+
+    /**
+     * Whether this visitor reads the byte code of the visited classes. Visitors only interested in class names
+     * return <code>false</code>, so that class files are not read but only passed as a stream to
+     * {@link #visitClass(String, InputStream)}.
+     *
+     * @return <code>true</code> if the byte code is read, the default
+     */
+    default boolean isByteCodeRequired() {
+        return true;
+    }
+
+    /**
+     * Whether a class is skipped by this visitor. {@link ClassFileVisitorUtils} asks before opening a class file, so
+     * that excluded classes are neither read nor passed to the visitor.
+     *
+     * @param className the name of the class
+     * @return <code>true</code> if the class is not visited, <code>false</code> by default
+     */
+    default boolean isExcluded(String className) {
+        return false;
+    }
+
+    /**
+     * Whether all classes of a package and its subpackages are skipped by this visitor. {@link ClassFileVisitorUtils}
+     * asks before walking a package directory, so that excluded subtrees are not walked at all.
+     *
+     * @param packageName the name of the package
+     * @return <code>true</code> if no class of the package is visited, <code>false</code> by default
+     */
+    default boolean isPackageExcluded(String packageName) {
+        return false;
+    }
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.maven.shared.dependency.analyzer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -25,13 +27,25 @@ import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 import org.apache.maven.shared.dependency.analyzer.asm.VisitClassException;
 
@@ -42,6 +56,13 @@ import org.apache.maven.shared.dependency.analyzer.asm.VisitClassException;
  */
 public final class ClassFileVisitorUtils {
 
+    /**
+     * Number of class files handed out to a task at once when visiting classes in parallel.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    private static final int BUF_SIZE = 8192;
+
     private ClassFileVisitorUtils() {
         // private constructor for utility class
     }
@@ -71,60 +92,339 @@ public final class ClassFileVisitorUtils {
         }
     }
 
+    /**
+     * Visits the classes of a JAR file or directory in parallel.
+     * <p>
+     * The class files of a directory or local JAR file are handed out in batches to tasks run by the given executor.
+     * Each task visits its batches with its own visitor obtained from the factory, so visitors are confined to one
+     * thread and need not be thread-safe. The caller merges the results of the returned visitors, which together have
+     * visited exactly the classes a single visitor passed to {@link #accept(URL, ClassFileVisitor)} would have visited.
+     * Tasks not yet started when the current thread waits for them are run by the current thread, so the executor
+     * may be a bounded one that the current thread itself belongs to.
+     * JAR files that are not local are visited sequentially by a single visitor.
+     *
+     * @param url the URL of the jar file or directory to visit
+     * @param visitorFactory creates a new visitor for each task
+     * @param executor the executor to run the tasks
+     * @param <T> the type of the visitors
+     * @return the visitors used, at least one
+     * @throws java.io.IOException I/O error or corrupt class file
+     */
+    public static <T extends ClassFileVisitor> List<T> accept(URL url, Supplier<T> visitorFactory, Executor executor)
+            throws IOException {
+        File jarFile = toLocalJarFile(url);
+        if (jarFile != null) {
+            // entries of a ZipFile may be read concurrently
+            try (ZipFile zipFile = new ZipFile(jarFile)) {
+                return visitInParallel(
+                        listClassEntries(zipFile),
+                        (entries, visitor) -> visitClassEntries(zipFile, entries, visitor),
+                        visitorFactory.get(),
+                        visitorFactory,
+                        executor);
+            }
+        }
+
+        T firstVisitor = visitorFactory.get();
+        File directory = toDirectory(url);
+        if (directory == null) {
+            accept(url, firstVisitor);
+            return Collections.singletonList(firstVisitor);
+        }
+
+        // the visitors of a factory are expected to exclude the same classes
+        return visitInParallel(
+                listClassFiles(directory, firstVisitor),
+                (classFiles, visitor) -> visitClassFiles(directory, classFiles, visitor),
+                firstVisitor,
+                visitorFactory,
+                executor);
+    }
+
     // private methods --------------------------------------------------------
 
+    /**
+     * Visits a batch of class files.
+     *
+     * @param <E> the type of the class file handles
+     */
+    private interface BatchVisitor<E> {
+        void visit(List<E> batch, ClassFileVisitor visitor) throws IOException;
+    }
+
+    /**
+     * Handles a walked class file.
+     */
+    private interface ClassFileHandler {
+        void handle(Path classFile) throws IOException;
+    }
+
+    private static <E, T extends ClassFileVisitor> List<T> visitInParallel(
+            List<E> classFiles,
+            BatchVisitor<E> batchVisitor,
+            T firstVisitor,
+            Supplier<T> visitorFactory,
+            Executor executor)
+            throws IOException {
+        int batches = (classFiles.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        int tasks = Math.max(1, Math.min(batches, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger nextBatch = new AtomicInteger();
+
+        List<T> visitors = new ArrayList<>(tasks);
+        List<ForkedTask<Void>> forkedTasks = new ArrayList<>(tasks);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                T visitor = i == 0 ? firstVisitor : visitorFactory.get();
+                visitors.add(visitor);
+                forkedTasks.add(ForkedTask.fork(
+                        () -> {
+                            int batch;
+                            while ((batch = nextBatch.getAndIncrement()) < batches) {
+                                int from = batch * BATCH_SIZE;
+                                int to = Math.min(from + BATCH_SIZE, classFiles.size());
+                                batchVisitor.visit(classFiles.subList(from, to), visitor);
+                            }
+                            return null;
+                        },
+                        executor));
+            }
+
+            // tasks not started yet are run by the current thread
+            for (ForkedTask<Void> forkedTask : forkedTasks) {
+                forkedTask.join();
+            }
+        } finally {
+            // stop handing out batches if a task failed
+            nextBatch.set(batches);
+            forkedTasks.forEach(ForkedTask::cancel);
+        }
+
+        return visitors;
+    }
+
+    private static File toLocalJarFile(URL url) {
+        if (!url.getPath().endsWith(".jar") || !url.getProtocol().equalsIgnoreCase("file")) {
+            return null;
+        }
+        try {
+            File file = new File(new URI(url.toString()));
+            return file.isFile() ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static File toDirectory(URL url) {
+        if (url.getPath().endsWith(".jar") || !url.getProtocol().equalsIgnoreCase("file")) {
+            return null;
+        }
+        try {
+            File file = new File(new URI(url.toString()));
+            return file.isDirectory() ? file : null;
+        } catch (URISyntaxException exception) {
+            return null;
+        }
+    }
+
     private static void acceptJar(URL url, ClassFileVisitor visitor) throws IOException {
+        File jarFile = toLocalJarFile(url);
+        if (jarFile != null) {
+            // the central directory lists all entries, so that only class files need to be inflated
+            try (ZipFile zipFile = new ZipFile(jarFile)) {
+                visitClassEntries(zipFile, listClassEntries(zipFile), visitor);
+            }
+            return;
+        }
+
         try (JarInputStream in = new JarInputStream(url.openStream())) {
             JarEntry entry;
             while ((entry = in.getNextJarEntry()) != null) {
                 String name = entry.getName();
-                // ignore files like package-info.class and module-info.class
-                if (name.endsWith(".class") && name.indexOf('-') == -1) {
+                if (isClassEntry(name)) {
                     // Jars(ZIP) always use / as the separator character
-                    visitClass(name, in, visitor, '/');
+                    String className = toClassName(name, '/');
+                    if (!visitor.isExcluded(className)) {
+                        visitClassEntry(className, entry.getSize(), in, visitor);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isClassEntry(String name) {
+        // ignore files like package-info.class and module-info.class
+        return name.endsWith(".class") && name.indexOf('-') == -1;
+    }
+
+    private static List<ZipEntry> listClassEntries(ZipFile zipFile) {
+        List<ZipEntry> entries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+        while (enumeration.hasMoreElements()) {
+            ZipEntry entry = enumeration.nextElement();
+            if (!entry.isDirectory() && isClassEntry(entry.getName())) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static void visitClassEntries(ZipFile zipFile, List<ZipEntry> entries, ClassFileVisitor visitor)
+            throws IOException {
+        for (ZipEntry entry : entries) {
+            String className = toClassName(entry.getName(), '/');
+            if (visitor.isExcluded(className)) {
+                // the entry is never inflated
+                continue;
+            }
+
+            if (visitor.isByteCodeRequired()) {
+                // unlike JarInputStream, ZipFile does not verify the CRC of entries
+                try (CheckedInputStream in = new CheckedInputStream(zipFile.getInputStream(entry), new CRC32())) {
+                    byte[] byteCode = readByteCode(in, entry.getSize());
+                    checkCrc(entry, in);
+                    visitClass(className, () -> visitor.visitByteCode(className, byteCode));
+                }
+            } else {
+                // the entry is only inflated as far as the visitor reads it, so its CRC is not checked
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    visitClass(className, () -> visitor.visitClass(className, in));
                 }
             }
         }
     }
 
+    private static void checkCrc(ZipEntry entry, CheckedInputStream in) throws IOException {
+        // inflate what is left of the entry, if its size was wrong
+        byte[] buffer = new byte[BUF_SIZE];
+        while (in.read(buffer) >= 0) {
+            // discard
+        }
+
+        long crc = in.getChecksum().getValue();
+        if (entry.getCrc() != -1 && entry.getCrc() != crc) {
+            throw new ZipException(
+                    String.format("invalid entry CRC (expected 0x%x but got 0x%x)", entry.getCrc(), crc));
+        }
+    }
+
+    private static void visitClassEntry(String className, long size, InputStream in, ClassFileVisitor visitor)
+            throws IOException {
+        if (visitor.isByteCodeRequired()) {
+            byte[] byteCode = readByteCode(in, size);
+            visitClass(className, () -> visitor.visitByteCode(className, byteCode));
+        } else {
+            visitClass(className, () -> visitor.visitClass(className, in));
+        }
+    }
+
     private static void acceptDirectory(File directory, ClassFileVisitor visitor) throws IOException {
-        try (Stream<Path> walk = Files.walk(directory.toPath())) {
-            List<Path> classFiles = walk.filter(
-                            path -> path.getFileName().toString().endsWith(".class"))
-                    .collect(Collectors.toList());
-            for (Path path : classFiles) {
-                try (InputStream in = Files.newInputStream(path)) {
-                    try {
-                        visitClass(directory, path, in, visitor);
-                    } catch (IOException e) {
-                        throw new IOException(
-                                String.format("%s from directory = %s, path = %s", e.getMessage(), directory, path), e);
+        // class files are visited as they are walked
+        walkClassFiles(directory, visitor, path -> visitClassFile(directory, path, visitor));
+    }
+
+    private static List<Path> listClassFiles(File directory, ClassFileVisitor visitor) throws IOException {
+        List<Path> classFiles = new ArrayList<>();
+        walkClassFiles(directory, visitor, classFiles::add);
+        return classFiles;
+    }
+
+    /**
+     * Walks the class files of a directory, skipping the subtrees of the packages excluded by the visitor.
+     */
+    private static void walkClassFiles(File directory, ClassFileVisitor visitor, ClassFileHandler handler)
+            throws IOException {
+        Path base = directory.toPath();
+        Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(base)) {
+                    String packageName = base.relativize(dir).toString().replace(File.separatorChar, '.');
+                    if (visitor.isPackageExcluded(packageName)) {
+                        return FileVisitResult.SKIP_SUBTREE;
                     }
                 }
+                return FileVisitResult.CONTINUE;
             }
-        }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (file.getFileName().toString().endsWith(".class")) {
+                    handler.handle(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
     }
 
-    private static void visitClass(File baseDirectory, Path path, InputStream in, ClassFileVisitor visitor)
+    private static void visitClassFiles(File directory, List<Path> classFiles, ClassFileVisitor visitor)
             throws IOException {
+        for (Path path : classFiles) {
+            visitClassFile(directory, path, visitor);
+        }
+    }
+
+    private static void visitClassFile(File directory, Path path, ClassFileVisitor visitor) throws IOException {
         // getPath() returns a String, not a java.nio.file.Path
-        String stringPath =
-                path.toFile().getPath().substring(baseDirectory.getPath().length() + 1);
-        visitClass(stringPath, in, visitor, File.separatorChar);
+        String stringPath = path.toFile().getPath().substring(directory.getPath().length() + 1);
+        String className = toClassName(stringPath, File.separatorChar);
+        if (visitor.isExcluded(className)) {
+            // the file is never opened
+            return;
+        }
+
+        try {
+            if (visitor.isByteCodeRequired()) {
+                // a single read into an array of the exact file size
+                byte[] byteCode = Files.readAllBytes(path);
+                visitClass(className, () -> visitor.visitByteCode(className, byteCode));
+            } else {
+                try (InputStream in = Files.newInputStream(path)) {
+                    visitClass(className, () -> visitor.visitClass(className, in));
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException(
+                    String.format("%s from directory = %s, path = %s", e.getMessage(), directory, path), e);
+        }
     }
 
-    private static void visitClass(String stringPath, InputStream in, ClassFileVisitor visitor, char separator)
-            throws IOException {
+    private static String toClassName(String stringPath, char separator) {
         String className = stringPath.substring(0, stringPath.length() - 6);
 
-        className = className.replace(separator, '.');
+        return className.replace(separator, '.');
+    }
 
+    private static void visitClass(String className, Runnable visit) throws IOException {
         try {
-            visitor.visitClass(className, in);
+            visit.run();
         } catch (UncheckedIOException e) {
             throw e.getCause();
         } catch (VisitClassException e) {
             throw new IOException(e);
         }
     }
+
+    private static byte[] readByteCode(InputStream in, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            // size unknown, e.g. for entries of a streamed JAR file written with data descriptors
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUF_SIZE];
+            int i;
+            while ((i = in.read(buffer)) > 0) {
+                out.write(buffer, 0, i);
+            }
+            return out.toByteArray();
+        }
+
+        byte[] byteCode = new byte[(int) size];
+        int offset = 0;
+        while (offset < byteCode.length) {
+            int i = in.read(byteCode, offset, byteCode.length - offset);
+            if (i < 0) {
+                throw new EOFException("Unexpected end of class file after " + offset + " of " + size + " bytes");
+            }
+            offset += i;
+        }
+        return byteCode;
+    }
 }
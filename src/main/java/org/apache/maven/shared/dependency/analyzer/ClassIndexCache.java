@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Cache of the class names contained in dependency JAR files, so that JARs shared by many projects need not be
+ * listed again on every analysis.
+ * <p>
+ * Implementations must be safe for concurrent use. A cache is an optimization only: failing to read or write an
+ * entry must never fail the analysis.
+ */
+public interface ClassIndexCache {
+
+    /**
+     * Gets the cached class names of a JAR file.
+     *
+     * @param jarFile the JAR file
+     * @return the names of all classes contained in the JAR file, or <code>null</code> if the JAR file is not cached
+     *     or has changed since it was cached
+     */
+    Set<String> get(File jarFile);
+
+    /**
+     * Stores the class names of a JAR file.
+     *
+     * @param jarFile    the JAR file
+     * @param classNames the names of all classes contained in the JAR file
+     */
+    void put(File jarFile, Set<String> classNames);
+
+    /**
+     * Gets the cached class names of a JAR file listed for a target release, as the classes of a multi-release JAR
+     * file depend on the release. Caches not keeping entries per release only keep the entries listed without a
+     * target release.
+     *
+     * @param jarFile the JAR file
+     * @param release the target release, or <code>0</code> for none
+     * @return the names of all classes contained in the JAR file for the release, or <code>null</code> if the JAR file
+     *     is not cached for the release or has changed since it was cached
+     * @see AnalysisOptions#withTargetRelease(int)
+     */
+    default Set<String> get(File jarFile, int release) {
+        return release == 0 ? get(jarFile) : null;
+    }
+
+    /**
+     * Stores the class names of a JAR file listed for a target release.
+     *
+     * @param jarFile    the JAR file
+     * @param release    the target release, or <code>0</code> for none
+     * @param classNames the names of all classes contained in the JAR file for the release
+     */
+    default void put(File jarFile, int release, Set<String> classNames) {
+        if (release == 0) {
+            put(jarFile, classNames);
+        }
+    }
+
+    /**
+     * Gets the packages of the cached class names of a JAR file listed for a target release, which tell whether the
+     * JAR file may contain a class without reading all its class names. The default implementation gets the packages
+     * of the class names returned by {@link #get(File, int)}: implementations should override it when they can read
+     * the packages of an entry alone.
+     *
+     * @param jarFile the JAR file
+     * @param release the target release, or <code>0</code> for none
+     * @return the names of the packages of all classes contained in the JAR file for the release, empty for the
+     *     default package, or <code>null</code> if the JAR file is not cached for the release or has changed since it
+     *     was cached
+     * @see AnalysisOptions#withLazyIndexing(boolean)
+     */
+    default Set<String> getPackages(File jarFile, int release) {
+        Set<String> classNames = get(jarFile, release);
+        return classNames == null ? null : ClassArtifactIndex.packagesOf(classNames);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of canonical class name instances for the duration of an analysis.
+ * <p>
+ * The same class names, like <code>java.lang.String</code>, are referenced by most analyzed classes and contained in
+ * the indexes of dependency artifacts. Pooling them keeps a single instance of every name: the class names converted
+ * from internal names are short-lived, only the pooled instance is retained. Pooled names may also be identified by
+ * dense int ids, so that structures referencing many names can store ids instead of references.
+ * <p>
+ * A pool is safe for concurrent use. It is not bounded, so it should not outlive the analysis it is created for.
+ */
+public final class ClassNamePool {
+
+    private final ConcurrentMap<String, String> classNames = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Class names by id, written under the lock of the pool.
+     */
+    private volatile String[] names = new String[64];
+
+    private int size;
+
+    /**
+     * Gets the canonical instance of a class name.
+     *
+     * @param className the class name
+     * @return the pooled instance equal to the class name
+     */
+    public String intern(String className) {
+        String pooled = classNames.get(className);
+        if (pooled == null) {
+            pooled = classNames.putIfAbsent(className, className);
+            if (pooled == null) {
+                pooled = className;
+            }
+        }
+        return pooled;
+    }
+
+    /**
+     * Gets the canonical instance of the class name of an internal name, e.g. <code>java.lang.String</code> for
+     * <code>java/lang/String</code>.
+     *
+     * @param internalName the internal name
+     * @return the pooled class name
+     */
+    public String fromInternalName(String internalName) {
+        // converting is cheaper than keeping the internal names of all classes alive
+        return intern(internalName.replace('/', '.'));
+    }
+
+    /**
+     * Gets the id of a class name, assigning the next id if the class name has none yet. Ids are dense and start at 0.
+     *
+     * @param className the class name
+     * @return the id of the class name
+     */
+    public int id(String className) {
+        Integer id = ids.get(className);
+        if (id == null) {
+            synchronized (this) {
+                id = ids.get(className);
+                if (id == null) {
+                    String pooled = intern(className);
+                    String[] current = names;
+                    if (size == current.length) {
+                        current = Arrays.copyOf(current, size * 2);
+                    }
+                    current[size] = pooled;
+                    names = current;
+                    id = size++;
+                    ids.put(pooled, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Gets the class name of an id.
+     *
+     * @param id an id returned by {@link #id(String)}
+     * @return the pooled class name
+     */
+    public String name(int id) {
+        return names[id];
+    }
+}
@@ -18,18 +18,51 @@
  */
 package org.apache.maven.shared.dependency.analyzer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * Patterns for classes
+ * <p>
+ * Patterns are regular expressions matched against whole class names. Most patterns are literal class names or
+ * literal package prefixes such as <code>com\.acme\.generated\..*</code>: those are compiled into a single
+ * trie, where an unescaped <code>.</code> is an edge matching any character. Only the remaining patterns are matched
+ * as regular expressions. Recent class names that matched no pattern are remembered, as the same names are looked up
+ * over and over during an analysis.
  */
 public class ClassesPatterns {
 
+    private static final int NEGATIVE_CACHE_SIZE = 1024;
+
+    private static final int UNSUPPORTED = -1;
+
+    private static final int NO_MATCH = 0;
+
+    private static final int MATCH = 1;
+
     private final Collection<Pattern> patterns;
 
+    /**
+     * Literal and prefix patterns.
+     */
+    private final Node trie = new Node();
+
+    /**
+     * Patterns that are not literal nor prefix patterns.
+     */
+    private final List<Pattern> regexPatterns = new ArrayList<>();
+
+    /**
+     * Direct-mapped cache of class names matching no pattern. Races are benign: a stale or lost entry only costs a
+     * lookup, and strings are safely published.
+     */
+    private final String[] negativeCache;
+
     /**
      * Default constructor.
      *
@@ -41,16 +74,246 @@ public class ClassesPatterns {
         } else {
             this.patterns = patterns.stream().map(Pattern::compile).collect(Collectors.toSet());
         }
+
+        for (Pattern pattern : this.patterns) {
+            if (!trie.add(pattern.pattern())) {
+                regexPatterns.add(pattern);
+            }
+        }
+        negativeCache = this.patterns.isEmpty() ? null : new String[NEGATIVE_CACHE_SIZE];
     }
 
     public ClassesPatterns() {
-        this.patterns = Collections.emptySet();
+        this(null);
     }
 
     public boolean isMatch(String className) {
         if (patterns.isEmpty()) {
             return false;
         }
-        return patterns.stream().anyMatch(pattern -> pattern.matcher(className).matches());
+
+        int hash = className.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (NEGATIVE_CACHE_SIZE - 1);
+        if (className.equals(negativeCache[index])) {
+            return false;
+        }
+
+        boolean match = matches(className);
+        if (!match) {
+            negativeCache[index] = className;
+        }
+        return match;
+    }
+
+    /**
+     * Whether the classes of a package and of all its subpackages match a pattern, so that the package need not be
+     * visited at all. Only literal package prefixes such as <code>com\.acme\.generated\..*</code> are considered:
+     * <code>false</code> may be returned although other patterns happen to match every class of the package.
+     *
+     * @param packageName the name of the package
+     * @return <code>true</code> if every class name in the package or its subpackages matches
+     */
+    public boolean isPackageMatch(String packageName) {
+        return !patterns.isEmpty() && trie.matchesAllWithPrefix(packageName + '.', 0);
+    }
+
+    private boolean matches(String className) {
+        int match = trie.match(className, 0);
+        if (match == UNSUPPORTED) {
+            return patterns.stream().anyMatch(pattern -> pattern.matcher(className).matches());
+        }
+        if (match == MATCH) {
+            return true;
+        }
+        for (Pattern pattern : regexPatterns) {
+            if (pattern.matcher(className).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trie node. Every edge consumes exactly one character, so matching visits every node at most once.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        /**
+         * Edge of an unescaped <code>.</code>, matching any character but a line terminator.
+         */
+        private Node any;
+
+        /**
+         * Whether a pattern ends at this node.
+         */
+        private boolean terminal;
+
+        /**
+         * Whether a pattern ends with <code>.*</code> at this node.
+         */
+        private boolean anySuffix;
+
+        /**
+         * Adds a pattern if it is a sequence of literal characters and unescaped <code>.</code>, optionally ending
+         * with <code>.*</code>.
+         *
+         * @param pattern the regular expression
+         * @return <code>false</code> if the pattern is not supported by the trie
+         */
+        boolean add(String pattern) {
+            List<Object> edges = new ArrayList<>(pattern.length());
+            boolean suffix = false;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (Character.isSurrogate(c)) {
+                    return false;
+                } else if (c == '\\') {
+                    if (++i == pattern.length()) {
+                        return false;
+                    }
+                    c = pattern.charAt(i);
+                    // \d, \Q, \1 and the like are no literals
+                    if (Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+                        return false;
+                    }
+                    edges.add(c);
+                } else if (c == '.') {
+                    if (i + 2 == pattern.length() && pattern.charAt(i + 1) == '*') {
+                        suffix = true;
+                        break;
+                    }
+                    edges.add(null);
+                } else if ("^$|?*+()[]{}".indexOf(c) >= 0) {
+                    return false;
+                } else {
+                    edges.add(c);
+                }
+
+                if (i + 1 < pattern.length() && "?*+{".indexOf(pattern.charAt(i + 1)) >= 0) {
+                    // quantified
+                    return false;
+                }
+            }
+
+            Node node = this;
+            for (Object edge : edges) {
+                node = edge == null ? node.anyChild() : node.child((Character) edge);
+            }
+            if (suffix) {
+                node.anySuffix = true;
+            } else {
+                node.terminal = true;
+            }
+            return true;
+        }
+
+        private Node anyChild() {
+            if (any == null) {
+                any = new Node();
+            }
+            return any;
+        }
+
+        private Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = key;
+            children[children.length - 1] = new Node();
+            return children[children.length - 1];
+        }
+
+        /**
+         * Matches the rest of a class name.
+         *
+         * @param className the class name
+         * @param offset    the index of the first character to match
+         * @return {@link #MATCH}, {@link #NO_MATCH}, or {@link #UNSUPPORTED} if the class name contains characters the
+         *     trie cannot match exactly like a regular expression
+         */
+        int match(String className, int offset) {
+            if (anySuffix) {
+                int match = matchAnySuffix(className, offset);
+                if (match != NO_MATCH) {
+                    return match;
+                }
+            }
+            if (offset == className.length()) {
+                return terminal ? MATCH : NO_MATCH;
+            }
+
+            char c = className.charAt(offset);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    int match = children[i].match(className, offset + 1);
+                    if (match != NO_MATCH) {
+                        return match;
+                    }
+                    break;
+                }
+            }
+            if (any != null) {
+                if (Character.isSurrogate(c)) {
+                    // . matches a whole code point
+                    return UNSUPPORTED;
+                }
+                if (!isLineTerminator(c)) {
+                    return any.match(className, offset + 1);
+                }
+            }
+            return NO_MATCH;
+        }
+
+        /**
+         * Whether all names starting with a prefix match, i.e. a pattern ending with <code>.*</code> is reached while
+         * matching the rest of the prefix. Names containing line terminators, which no class name does, are ignored.
+         *
+         * @param prefix the prefix
+         * @param offset the index of the first character to match
+         * @return <code>true</code> if every name starting with the prefix matches
+         */
+        boolean matchesAllWithPrefix(String prefix, int offset) {
+            if (anySuffix && matchAnySuffix(prefix, offset) == MATCH) {
+                return true;
+            }
+            if (offset == prefix.length()) {
+                return false;
+            }
+
+            char c = prefix.charAt(offset);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    if (children[i].matchesAllWithPrefix(prefix, offset + 1)) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+            // unlike a regular expression, the trie cannot match a surrogate pair with a single . edge
+            return any != null
+                    && !Character.isSurrogate(c)
+                    && !isLineTerminator(c)
+                    && any.matchesAllWithPrefix(prefix, offset + 1);
+        }
+
+        private static int matchAnySuffix(String className, int offset) {
+            for (int i = offset; i < className.length(); i++) {
+                if (isLineTerminator(className.charAt(i))) {
+                    return NO_MATCH;
+                }
+            }
+            return MATCH;
+        }
+
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
     }
 }
@@ -54,6 +54,24 @@ public class CollectorClassFileVisitor implements ClassFileVisitor {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isByteCodeRequired() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isExcluded(String className) {
+        return excludedClasses.isMatch(className);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isPackageExcluded(String packageName) {
+        return excludedClasses.isPackageMatch(packageName);
+    }
+
     /**
      * <p>Getter for the field <code>classes</code>.</p>
      *
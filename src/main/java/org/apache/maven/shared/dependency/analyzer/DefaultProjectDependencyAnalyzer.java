@@ -24,20 +24,27 @@ import javax.inject.Singleton;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.stream.Collectors;
+import java.util.jar.Manifest;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.project.MavenProject;
@@ -50,6 +57,13 @@ import org.apache.maven.project.MavenProject;
 @Named
 @Singleton
 public class DefaultProjectDependencyAnalyzer implements ProjectDependencyAnalyzer {
+    /**
+     * Directory of the versioned entries of multi-release JAR files.
+     */
+    private static final String VERSIONS_DIRECTORY = "META-INF/versions/";
+
+    private static final String MULTI_RELEASE = "Multi-Release";
+
     /**
      * ClassAnalyzer
      */
@@ -62,58 +76,133 @@ public class DefaultProjectDependencyAnalyzer implements ProjectDependencyAnalyz
     @Inject
     private List<TestDependencyClassesProvider> testDependencyClassesProviders;
 
+    /**
+     * Whether a subclass customizes the classes of the dependency artifacts, which are then indexed from the map it
+     * builds.
+     */
+    private final boolean artifactClassMapOverridden = overridesBuildArtifactClassMap(getClass());
+
+    /**
+     * Creates an analyzer whose collaborators are injected.
+     */
+    public DefaultProjectDependencyAnalyzer() {}
+
+    /**
+     * Creates an analyzer with the given collaborators, for use without dependency injection.
+     *
+     * @param classAnalyzer                  the analyzer of the classes of dependency directories
+     * @param mainDependencyClassesProviders the providers of the dependency classes of the main classes
+     * @param testDependencyClassesProviders the providers of the dependency classes of the test classes
+     */
+    public DefaultProjectDependencyAnalyzer(
+            ClassAnalyzer classAnalyzer,
+            List<MainDependencyClassesProvider> mainDependencyClassesProviders,
+            List<TestDependencyClassesProvider> testDependencyClassesProviders) {
+        this.classAnalyzer = classAnalyzer;
+        this.mainDependencyClassesProviders = mainDependencyClassesProviders;
+        this.testDependencyClassesProviders = testDependencyClassesProviders;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ProjectDependencyAnalysis analyze(MavenProject project, Collection<String> excludedClasses)
             throws ProjectDependencyAnalyzerException {
+        return analyze(project, excludedClasses, new AnalysisOptions());
+    }
+
+    /**
+     * Analyzes the dependencies of a project with the given options. The options are passed on to the
+     * {@link DependencyClassesProvider}s, so that the default providers analyze the project classes with them.
+     *
+     * @param project         the project to analyze
+     * @param excludedClasses the classes to exclude, or <code>null</code>
+     * @param options         the options of the analysis
+     * @return the analysis
+     * @throws ProjectDependencyAnalyzerException if the analysis fails
+     */
+    public ProjectDependencyAnalysis analyze(
+            MavenProject project, Collection<String> excludedClasses, AnalysisOptions options)
+            throws ProjectDependencyAnalyzerException {
         try {
             ClassesPatterns excludedClassesPatterns = new ClassesPatterns(excludedClasses);
-            Map<Artifact, Set<String>> artifactClassMap = buildArtifactClassMap(project, excludedClassesPatterns);
-            Map<String, Artifact> classToArtifactMap = buildClassToArtifactMap(artifactClassMap);
+            Executor executor = options.getExecutor();
 
-            Set<DependencyUsage> mainDependencyClasses = new HashSet<>();
-            for (MainDependencyClassesProvider provider : mainDependencyClassesProviders) {
-                mainDependencyClasses.addAll(provider.getDependencyClasses(project, excludedClassesPatterns));
-            }
+            UsedArtifacts usedArtifacts;
 
-            Set<DependencyUsage> testDependencyClasses = new HashSet<>();
-            for (TestDependencyClassesProvider provider : testDependencyClassesProviders) {
-                testDependencyClasses.addAll(provider.getDependencyClasses(project, excludedClassesPatterns));
-            }
+            if (executor == null) {
+                // resolve the usages as they are found, keeping only the usages of dependency artifacts
+                UsedArtifacts sequentialUsedArtifacts =
+                        new UsedArtifacts(buildClassToArtifactIndex(project, excludedClassesPatterns, options));
 
-            Set<DependencyUsage> dependencyClasses = new HashSet<>();
-            dependencyClasses.addAll(mainDependencyClasses);
-            dependencyClasses.addAll(testDependencyClasses);
+                for (DependencyClassesProvider provider : mainDependencyClassesProviders) {
+                    provider.getDependencyClasses(
+                            project, excludedClassesPatterns, options, sequentialUsedArtifacts::addMainUsage);
+                }
+                for (DependencyClassesProvider provider : testDependencyClassesProviders) {
+                    provider.getDependencyClasses(
+                            project, excludedClassesPatterns, options, sequentialUsedArtifacts::addTestUsage);
+                }
 
-            Set<DependencyUsage> testOnlyDependencyClasses =
-                    buildTestOnlyDependencyClasses(mainDependencyClasses, testDependencyClasses);
+                usedArtifacts = sequentialUsedArtifacts;
+            } else {
+                ClassArtifactIndex classToArtifactIndex;
+                Set<DependencyUsage> mainDependencyClasses;
+                Set<DependencyUsage> testDependencyClasses;
+
+                // scan the main and test classes while the dependency artifacts are indexed
+                ForkedTask<Set<DependencyUsage>> mainTask = ForkedTask.fork(
+                        () -> getDependencyClasses(
+                                mainDependencyClassesProviders, project, excludedClassesPatterns, options),
+                        executor);
+                ForkedTask<Set<DependencyUsage>> testTask = ForkedTask.fork(
+                        () -> getDependencyClasses(
+                                testDependencyClassesProviders, project, excludedClassesPatterns, options),
+                        executor);
+
+                try {
+                    classToArtifactIndex = buildClassToArtifactIndex(project, excludedClassesPatterns, options);
+
+                    mainDependencyClasses = mainTask.join();
+                    testDependencyClasses = testTask.join();
+                } finally {
+                    mainTask.cancel();
+                    testTask.cancel();
+                }
 
-            Map<Artifact, Set<DependencyUsage>> usedArtifacts =
-                    buildUsedArtifacts(classToArtifactMap, dependencyClasses);
-            Set<Artifact> mainUsedArtifacts = buildUsedArtifacts(classToArtifactMap, mainDependencyClasses)
-                    .keySet();
+                usedArtifacts = new UsedArtifacts(classToArtifactIndex);
+                for (DependencyUsage usage : mainDependencyClasses) {
+                    usedArtifacts.addMainUsage(usage.getDependencyClass(), usage.getUsedBy());
+                }
+                for (DependencyUsage usage : testDependencyClasses) {
+                    usedArtifacts.addTestUsage(usage.getDependencyClass(), usage.getUsedBy());
+                }
+            }
+
+            Map<Artifact, Set<DependencyUsage>> usedArtifactsWithUsages = usedArtifacts.getUsages();
+
+            Set<Artifact> testOnlyArtifacts = usedArtifacts.getTestOnlyArtifacts();
 
-            Set<Artifact> testArtifacts = buildUsedArtifacts(classToArtifactMap, testOnlyDependencyClasses)
-                    .keySet();
-            Set<Artifact> testOnlyArtifacts = removeAll(testArtifacts, mainUsedArtifacts);
+            // the artifacts are compared by conflict id, computed once per artifact for all the operations
+            ArtifactSets artifactSets = new ArtifactSets();
 
             Set<Artifact> declaredArtifacts = buildDeclaredArtifacts(project);
             Set<Artifact> usedDeclaredArtifacts = new LinkedHashSet<>(declaredArtifacts);
-            usedDeclaredArtifacts.retainAll(usedArtifacts.keySet());
+            usedDeclaredArtifacts.retainAll(usedArtifactsWithUsages.keySet());
 
             Map<Artifact, Set<DependencyUsage>> usedDeclaredArtifactsWithClasses = new LinkedHashMap<>();
             for (Artifact a : usedDeclaredArtifacts) {
-                usedDeclaredArtifactsWithClasses.put(a, usedArtifacts.get(a));
+                usedDeclaredArtifactsWithClasses.put(a, usedArtifactsWithUsages.get(a));
             }
 
-            Map<Artifact, Set<DependencyUsage>> usedUndeclaredArtifactsWithClasses = new LinkedHashMap<>(usedArtifacts);
+            Map<Artifact, Set<DependencyUsage>> usedUndeclaredArtifactsWithClasses =
+                    new LinkedHashMap<>(usedArtifactsWithUsages);
             Set<Artifact> usedUndeclaredArtifacts =
-                    removeAll(usedUndeclaredArtifactsWithClasses.keySet(), declaredArtifacts);
+                    artifactSets.removeAll(usedUndeclaredArtifactsWithClasses.keySet(), declaredArtifacts);
 
             usedUndeclaredArtifactsWithClasses.keySet().retainAll(usedUndeclaredArtifacts);
 
             Set<Artifact> unusedDeclaredArtifacts = new LinkedHashSet<>(declaredArtifacts);
-            unusedDeclaredArtifacts = removeAll(unusedDeclaredArtifacts, usedArtifacts.keySet());
+            unusedDeclaredArtifacts = artifactSets.removeAll(unusedDeclaredArtifacts, usedArtifactsWithUsages.keySet());
 
             Set<Artifact> testArtifactsWithNonTestScope = getTestArtifactsWithNonTestScope(testOnlyArtifacts);
 
@@ -122,37 +211,145 @@ public class DefaultProjectDependencyAnalyzer implements ProjectDependencyAnalyz
                     unusedDeclaredArtifacts, testArtifactsWithNonTestScope);
         } catch (IOException exception) {
             throw new ProjectDependencyAnalyzerException("Cannot analyze dependencies", exception);
+        } catch (UncheckedIOException exception) {
+            // an artifact indexed lazily could not be listed on lookup
+            throw new ProjectDependencyAnalyzerException("Cannot analyze dependencies", exception.getCause());
         }
     }
 
     /**
-     * This method defines a new way to remove the artifacts by using the conflict
-     * id. We don't care about the version
-     * here because there can be only 1 for a given artifact anyway.
+     * Analyzes which dependency artifacts are reachable from the project classes, following the classes referenced by
+     * the project classes, then the classes referenced by those classes in the dependency artifacts, and so on. A
+     * reachable artifact that is not used directly by the project classes is used transitively.
+     *
+     * @param project                      the project to analyze
+     * @param excludedClasses              the classes to exclude
+     * @param transitiveDependencyAnalyzer the analyzer of the bytecode of the dependency artifacts, typically a
+     *                                     {@link CachingDependencyAnalyzer} so that every dependency JAR file is
+     *                                     analyzed once
+     * @return the reachable dependency artifacts, in classpath order
+     * @throws ProjectDependencyAnalyzerException if the analysis fails
+     */
+    public Set<Artifact> analyzeReachableArtifacts(
+            MavenProject project,
+            Collection<String> excludedClasses,
+            DependencyAnalyzer transitiveDependencyAnalyzer)
+            throws ProjectDependencyAnalyzerException {
+        return analyzeReachableArtifacts(project, excludedClasses, transitiveDependencyAnalyzer, new AnalysisOptions());
+    }
+
+    /**
+     * Analyzes which dependency artifacts are reachable from the project classes with the given options.
      *
-     * @param start  initial set
-     * @param remove set to exclude
-     * @return set with remove excluded
+     * @param project                      the project to analyze
+     * @param excludedClasses              the classes to exclude
+     * @param transitiveDependencyAnalyzer the analyzer of the bytecode of the dependency artifacts
+     * @param options                      the options of the analysis
+     * @return the reachable dependency artifacts, in classpath order
+     * @throws ProjectDependencyAnalyzerException if the analysis fails
+     * @see #analyzeReachableArtifacts(MavenProject, Collection, DependencyAnalyzer)
      */
-    private static Set<Artifact> removeAll(Set<Artifact> start, Set<Artifact> remove) {
-        Set<Artifact> results = new LinkedHashSet<>(start.size());
+    public Set<Artifact> analyzeReachableArtifacts(
+            MavenProject project,
+            Collection<String> excludedClasses,
+            DependencyAnalyzer transitiveDependencyAnalyzer,
+            AnalysisOptions options)
+            throws ProjectDependencyAnalyzerException {
+        try {
+            ClassesPatterns excludedClassesPatterns = new ClassesPatterns(excludedClasses);
+            ClassArtifactIndex classToArtifactIndex =
+                    buildClassToArtifactIndex(project, excludedClassesPatterns, options);
+
+            Deque<String> pendingClasses = new ArrayDeque<>();
+            Set<String> visitedClasses = new HashSet<>();
+            for (List<? extends DependencyClassesProvider> providers :
+                    Arrays.asList(mainDependencyClassesProviders, testDependencyClassesProviders)) {
+                for (DependencyUsage usage :
+                        getDependencyClasses(providers, project, excludedClassesPatterns, options)) {
+                    if (visitedClasses.add(usage.getDependencyClass())) {
+                        pendingClasses.add(usage.getDependencyClass());
+                    }
+                }
+            }
+
+            Map<Artifact, Map<String, Set<String>>> artifactDependencyClasses = new HashMap<>();
+            Set<Artifact> reachableArtifacts = new HashSet<>();
 
-        for (Artifact artifact : start) {
-            boolean found = false;
+            while (!pendingClasses.isEmpty()) {
+                String className = pendingClasses.poll();
+                Artifact artifact = classToArtifactIndex.get(className);
 
-            for (Artifact artifact2 : remove) {
-                if (artifact.getDependencyConflictId().equals(artifact2.getDependencyConflictId())) {
-                    found = true;
-                    break;
+                if (artifact == null || includedInJDK(artifact)) {
+                    continue;
+                }
+
+                reachableArtifacts.add(artifact);
+
+                Map<String, Set<String>> dependencyClasses = artifactDependencyClasses.get(artifact);
+                if (dependencyClasses == null) {
+                    dependencyClasses = getArtifactDependencyClasses(
+                            transitiveDependencyAnalyzer, artifact, excludedClassesPatterns);
+                    artifactDependencyClasses.put(artifact, dependencyClasses);
+                }
+
+                for (String dependencyClass : dependencyClasses.getOrDefault(className, Collections.emptySet())) {
+                    if (visitedClasses.add(dependencyClass)) {
+                        pendingClasses.add(dependencyClass);
+                    }
                 }
             }
 
-            if (!found) {
-                results.add(artifact);
+            Set<Artifact> result = new LinkedHashSet<>(project.getArtifacts());
+            result.retainAll(reachableArtifacts);
+            return result;
+        } catch (IOException exception) {
+            throw new ProjectDependencyAnalyzerException("Cannot analyze reachable dependencies", exception);
+        } catch (UncheckedIOException exception) {
+            throw new ProjectDependencyAnalyzerException("Cannot analyze reachable dependencies", exception.getCause());
+        }
+    }
+
+    /**
+     * Gets the dependency classes of every class of an artifact. The dependency classes of inner classes are those of
+     * their outer class, as inner classes are never reported as dependency classes and thus never looked up.
+     */
+    private static Map<String, Set<String>> getArtifactDependencyClasses(
+            DependencyAnalyzer transitiveDependencyAnalyzer, Artifact artifact, ClassesPatterns excludedClasses)
+            throws IOException {
+        Map<String, Set<String>> dependencyClasses = new HashMap<>();
+
+        File file = artifact.getFile();
+        if (file != null && (file.getName().endsWith(".jar") || file.isDirectory())) {
+            for (DependencyUsage usage :
+                    transitiveDependencyAnalyzer.analyzeUsages(file.toURI().toURL(), excludedClasses)) {
+                String usedBy = usage.getUsedBy();
+                int innerClass = usedBy.indexOf('$');
+                if (innerClass > 0) {
+                    usedBy = usedBy.substring(0, innerClass);
+                }
+
+                dependencyClasses.computeIfAbsent(usedBy, k -> new HashSet<>()).add(usage.getDependencyClass());
             }
         }
 
-        return results;
+        return dependencyClasses;
+    }
+
+    private static Set<DependencyUsage> getDependencyClasses(
+            List<? extends DependencyClassesProvider> providers,
+            MavenProject project,
+            ClassesPatterns excludedClasses,
+            AnalysisOptions options)
+            throws IOException {
+        Set<DependencyUsage> dependencyClasses = new HashSet<>();
+        for (DependencyClassesProvider provider : providers) {
+            provider.getDependencyClasses(
+                    project,
+                    excludedClasses,
+                    options,
+                    (dependencyClass, usedBy) -> dependencyClasses.add(new DependencyUsage(dependencyClass, usedBy)));
+        }
+        return dependencyClasses;
     }
 
     private static Set<Artifact> getTestArtifactsWithNonTestScope(Set<Artifact> testOnlyArtifacts) {
@@ -167,80 +364,307 @@ public class DefaultProjectDependencyAnalyzer implements ProjectDependencyAnalyz
         return nonTestScopeArtifacts;
     }
 
+    /**
+     * Builds the map of the classes contained in each dependency artifact, in classpath order.
+     *
+     * @param project         the project
+     * @param excludedClasses the classes to exclude
+     * @return the classes of each dependency artifact that is a JAR file or a directory
+     * @throws IOException if an artifact cannot be read
+     * @deprecated the analysis indexes the classes of the dependency artifacts while listing them, without building
+     *     this map, and only calls this method when a subclass overrides it, in which case the map it returns is
+     *     indexed instead: overriding it makes the analysis keep the classes of all artifacts in memory twice
+     */
+    @Deprecated
     protected Map<Artifact, Set<String>> buildArtifactClassMap(MavenProject project, ClassesPatterns excludedClasses)
             throws IOException {
         Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<>();
 
+        for (Artifact artifact : project.getArtifacts()) {
+            Set<String> classes = buildArtifactClasses(artifact, excludedClasses, new AnalysisOptions());
+
+            if (classes != null) {
+                artifactClassMap.put(artifact, classes);
+            }
+        }
+
+        return artifactClassMap;
+    }
+
+    /**
+     * Builds the index of the artifact containing each class, filled while the artifacts are listed so that no
+     * intermediate map of the classes of each artifact is kept.
+     */
+    private ClassArtifactIndex buildClassToArtifactIndex(
+            MavenProject project, ClassesPatterns excludedClasses, AnalysisOptions options) throws IOException {
+        if (artifactClassMapOverridden) {
+            return buildClassToArtifactIndex(buildArtifactClassMap(project, excludedClasses));
+        }
+
+        Executor executor = options.getExecutor();
+        ClassArtifactIndex classToArtifactIndex = new ClassArtifactIndex();
+
         Set<Artifact> dependencyArtifacts = project.getArtifacts();
 
-        for (Artifact artifact : dependencyArtifacts) {
-            File file = artifact.getFile();
+        if (executor == null) {
+            for (Artifact artifact : dependencyArtifacts) {
+                Set<String> packageNames = getLazyPackages(artifact, options);
+
+                if (packageNames != null) {
+                    classToArtifactIndex.putPackages(
+                            packageNames,
+                            artifact,
+                            action -> forEachArtifactClass(artifact, excludedClasses, options, action));
+                } else {
+                    forEachArtifactClass(
+                            artifact,
+                            excludedClasses,
+                            options,
+                            className -> classToArtifactIndex.put(className, artifact));
+                }
+            }
 
-            if (file != null && file.getName().endsWith(".jar")) {
-                // optimized solution for the jar case
+            return classToArtifactIndex;
+        }
 
-                try (JarFile jarFile = new JarFile(file)) {
-                    Enumeration<JarEntry> jarEntries = jarFile.entries();
+        // artifacts listed in parallel are added in classpath order, each set being released once added; artifacts
+        // indexed lazily have no task
+        Map<Artifact, Set<String>> lazyPackages = new HashMap<>();
+        Map<Artifact, ForkedTask<Set<String>>> tasks = new LinkedHashMap<>();
 
-                    Set<String> classes = new HashSet<>();
+        try {
+            for (Artifact artifact : dependencyArtifacts) {
+                Set<String> packageNames = getLazyPackages(artifact, options);
+
+                if (packageNames != null) {
+                    lazyPackages.put(artifact, packageNames);
+                    tasks.put(artifact, null);
+                } else {
+                    tasks.put(
+                            artifact,
+                            ForkedTask.fork(() -> buildArtifactClasses(artifact, excludedClasses, options), executor));
+                }
+            }
 
-                    while (jarEntries.hasMoreElements()) {
-                        String entry = jarEntries.nextElement().getName();
-                        if (entry.endsWith(".class")) {
-                            String className = entry.replace('/', '.');
-                            className = className.substring(0, className.length() - ".class".length());
-                            if (!excludedClasses.isMatch(className)) {
-                                classes.add(className);
-                            }
-                        }
-                    }
+            Iterator<Map.Entry<Artifact, ForkedTask<Set<String>>>> it = tasks.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Artifact, ForkedTask<Set<String>>> entry = it.next();
+                Artifact artifact = entry.getKey();
+
+                if (entry.getValue() == null) {
+                    classToArtifactIndex.putPackages(
+                            lazyPackages.remove(artifact),
+                            artifact,
+                            action -> forEachArtifactClass(artifact, excludedClasses, options, action));
+                    it.remove();
+                    continue;
+                }
+
+                Set<String> classes = entry.getValue().join();
+                it.remove();
 
-                    artifactClassMap.put(artifact, classes);
+                if (classes != null) {
+                    for (String className : classes) {
+                        classToArtifactIndex.put(className, artifact);
+                    }
+                }
+            }
+        } finally {
+            for (ForkedTask<Set<String>> task : tasks.values()) {
+                if (task != null) {
+                    task.cancel();
                 }
-            } else if (file != null && file.isDirectory()) {
-                URL url = file.toURI().toURL();
-                Set<String> classes = classAnalyzer.analyze(url, excludedClasses);
+            }
+        }
 
-                artifactClassMap.put(artifact, classes);
+        return classToArtifactIndex;
+    }
+
+    /**
+     * Gets the packages of a JAR file artifact from the class index cache, when dependency JAR files are indexed
+     * lazily.
+     *
+     * @return the packages, or <code>null</code> if the artifact is to be listed
+     */
+    private static Set<String> getLazyPackages(Artifact artifact, AnalysisOptions options) {
+        ClassIndexCache classIndexCache = options.getClassIndexCache();
+        File file = artifact.getFile();
+
+        if (!options.isLazyIndexing()
+                || classIndexCache == null
+                || file == null
+                || !file.getName().endsWith(".jar")) {
+            return null;
+        }
+
+        return classIndexCache.getPackages(file, options.getTargetRelease());
+    }
+
+    /**
+     * Builds the index of the artifact containing each class from the map of the classes of each artifact.
+     */
+    private static ClassArtifactIndex buildClassToArtifactIndex(Map<Artifact, Set<String>> artifactClassMap) {
+        ClassArtifactIndex classToArtifactIndex = new ClassArtifactIndex();
+
+        for (Map.Entry<Artifact, Set<String>> entry : artifactClassMap.entrySet()) {
+            for (String className : entry.getValue()) {
+                classToArtifactIndex.put(className, entry.getKey());
             }
         }
 
-        return artifactClassMap;
+        return classToArtifactIndex;
+    }
+
+    /**
+     * Whether a class overrides {@link #buildArtifactClassMap(MavenProject, ClassesPatterns)}.
+     */
+    private static boolean overridesBuildArtifactClassMap(Class<?> type) {
+        for (Class<?> c = type; c != DefaultProjectDependencyAnalyzer.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("buildArtifactClassMap", MavenProject.class, ClassesPatterns.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this class
+            }
+        }
+        return false;
     }
 
-    private static Set<DependencyUsage> buildTestOnlyDependencyClasses(
-            Set<DependencyUsage> mainDependencyClasses, Set<DependencyUsage> testDependencyClasses) {
-        Set<DependencyUsage> testOnlyDependencyClasses = new HashSet<>(testDependencyClasses);
-        Set<String> mainDepClassNames = mainDependencyClasses.stream()
-                .map(DependencyUsage::getDependencyClass)
-                .collect(Collectors.toSet());
-        testOnlyDependencyClasses.removeIf(u -> mainDepClassNames.contains(u.getDependencyClass()));
-        return testOnlyDependencyClasses;
+    private Set<String> buildArtifactClasses(
+            Artifact artifact, ClassesPatterns excludedClasses, AnalysisOptions options) throws IOException {
+        Set<String> classes = new HashSet<>();
+
+        return forEachArtifactClass(artifact, excludedClasses, options, classes::add) ? classes : null;
     }
 
-    private static Set<Artifact> buildDeclaredArtifacts(MavenProject project) {
-        Set<Artifact> declaredArtifacts = project.getDependencyArtifacts();
+    /**
+     * Lists the classes of an artifact, the classes of multi-release JAR files for the target release of the options,
+     * looking up those of JAR files in the class index cache of the options if any.
+     *
+     * @return <code>false</code> if the artifact is neither a JAR file nor a directory
+     */
+    private boolean forEachArtifactClass(
+            Artifact artifact, ClassesPatterns excludedClasses, AnalysisOptions options, Consumer<String> action)
+            throws IOException {
+        File file = artifact.getFile();
 
-        if (declaredArtifacts == null) {
-            declaredArtifacts = Collections.emptySet();
+        if (file != null && file.getName().endsWith(".jar")) {
+            Consumer<String> filter = className -> {
+                if (!excludedClasses.isMatch(className)) {
+                    action.accept(className);
+                }
+            };
+
+            ClassIndexCache classIndexCache = options.getClassIndexCache();
+            if (classIndexCache == null) {
+                forEachJarClass(file, options.getTargetRelease(), filter);
+            } else {
+                getJarClasses(classIndexCache, file, options.getTargetRelease()).forEach(filter);
+            }
+
+            return true;
+        } else if (file != null && file.isDirectory()) {
+            URL url = file.toURI().toURL();
+
+            classAnalyzer.analyze(url, excludedClasses).forEach(action);
+
+            return true;
         }
 
-        return declaredArtifacts;
+        return false;
+    }
+
+    private static Set<String> getJarClasses(ClassIndexCache classIndexCache, File file, int release)
+            throws IOException {
+        Set<String> classes = classIndexCache.get(file, release);
+
+        if (classes == null) {
+            classes = new HashSet<>();
+            forEachJarClass(file, release, classes::add);
+
+            classIndexCache.put(file, release, classes);
+        }
+
+        return classes;
+    }
+
+    private static void forEachJarClass(File file, int release, Consumer<String> action) throws IOException {
+        // optimized solution for the jar case
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> jarEntries = jarFile.entries();
+            Boolean multiRelease = null;
+
+            while (jarEntries.hasMoreElements()) {
+                String entry = jarEntries.nextElement().getName();
+                if (!entry.endsWith(".class")) {
+                    continue;
+                }
+
+                if (entry.startsWith(VERSIONS_DIRECTORY)) {
+                    if (multiRelease == null) {
+                        multiRelease = isMultiRelease(jarFile);
+                    }
+                    entry = multiRelease ? toBaseEntry(entry, release) : null;
+                    // a version of a base entry, which is listed by itself
+                    if (entry == null || jarFile.getEntry(entry) != null) {
+                        continue;
+                    }
+                }
+
+                // like ClassFileVisitorUtils, ignore files like package-info.class, module-info.class and the
+                // other entries of META-INF
+                if (entry.indexOf('-') == -1) {
+                    String className = entry.replace('/', '.');
+                    className = className.substring(0, className.length() - ".class".length());
+                    action.accept(className);
+                }
+            }
+        }
     }
 
-    static Map<Artifact, Set<DependencyUsage>> buildUsedArtifacts(
-            Map<String, Artifact> classToArtifactMap, Set<DependencyUsage> dependencyClasses) {
-        Map<Artifact, Set<DependencyUsage>> usedArtifacts = new HashMap<>();
+    private static boolean isMultiRelease(JarFile jarFile) throws IOException {
+        Manifest manifest = jarFile.getManifest();
+        return manifest != null && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue(MULTI_RELEASE));
+    }
 
-        for (DependencyUsage classUsage : dependencyClasses) {
-            Artifact artifact = classToArtifactMap.get(classUsage.getDependencyClass());
+    /**
+     * Gets the base entry of a versioned entry of a multi-release JAR file.
+     *
+     * @param entry   the name of the versioned entry, starting with {@link #VERSIONS_DIRECTORY}
+     * @param release the target release, or <code>0</code> for all releases
+     * @return the name of the base entry, or <code>null</code> if the entry is for a later release or is no valid
+     *     versioned entry
+     */
+    private static String toBaseEntry(String entry, int release) {
+        int separator = entry.indexOf('/', VERSIONS_DIRECTORY.length());
+        if (separator <= VERSIONS_DIRECTORY.length() || separator - VERSIONS_DIRECTORY.length() > 9) {
+            return null;
+        }
 
-            if (artifact != null && !includedInJDK(artifact)) {
-                usedArtifacts.computeIfAbsent(artifact, k -> new HashSet<>()).add(classUsage);
+        int version = 0;
+        for (int i = VERSIONS_DIRECTORY.length(); i < separator; i++) {
+            char c = entry.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
             }
+            version = version * 10 + (c - '0');
+        }
+
+        // versioned entries are ignored for releases before Java 9
+        if (version < 9 || (release != 0 && version > release)) {
+            return null;
+        }
+        return entry.substring(separator + 1);
+    }
+
+    private static Set<Artifact> buildDeclaredArtifacts(MavenProject project) {
+        Set<Artifact> declaredArtifacts = project.getDependencyArtifacts();
+
+        if (declaredArtifacts == null) {
+            declaredArtifacts = Collections.emptySet();
         }
 
-        return usedArtifacts;
+        return declaredArtifacts;
     }
 
     // MSHARED-47 an uncommon case where a commonly used
@@ -258,16 +682,4 @@ public class DefaultProjectDependencyAnalyzer implements ProjectDependencyAnalyz
         return false;
     }
 
-    static Map<String, Artifact> buildClassToArtifactMap(Map<Artifact, Set<String>> artifactClassMap) {
-        Map<String, Artifact> classToArtifactMap = new HashMap<>();
-
-        for (Map.Entry<Artifact, Set<String>> entry : artifactClassMap.entrySet()) {
-            Artifact artifact = entry.getKey();
-            for (String className : entry.getValue()) {
-                classToArtifactMap.putIfAbsent(className, artifact);
-            }
-        }
-
-        return classToArtifactMap;
-    }
 }
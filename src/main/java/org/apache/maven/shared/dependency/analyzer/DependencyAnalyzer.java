@@ -64,4 +64,40 @@ public interface DependencyAnalyzer {
      * @throws IOException if an error occurs reading a JAR or .class file
      */
     Set<DependencyUsage> analyzeUsages(URL url, ClassesPatterns excludeClasses) throws IOException;
+
+    /**
+     * Analyzes the usages of a library, passing them to a sink instead of returning them. Implementations may then
+     * avoid materializing a set of usages. The default implementation passes the usages of the set returned by
+     * {@link #analyzeUsages(URL, ClassesPatterns)}, so it does not.
+     *
+     * @param url            the JAR file or directory to analyze
+     * @param excludeClasses a class list to exclude
+     * @param sink           the sink receiving the class names referenced by the library, paired with the classes
+     *                       declaring those references
+     * @throws IOException if an error occurs reading a JAR or .class file
+     */
+    default void analyzeUsages(URL url, ClassesPatterns excludeClasses, DependencyUsageSink sink) throws IOException {
+        for (DependencyUsage usage : analyzeUsages(url, excludeClasses)) {
+            sink.accept(usage.getDependencyClass(), usage.getUsedBy());
+        }
+    }
+
+    /**
+     * Analyzes the usages of a library with the options of an analysis, passing them to a sink. Implementations may
+     * honour the options relevant to them, such as {@link AnalysisOptions#isSkipCode()}, in addition to their own
+     * configuration. The default implementation ignores the options and calls
+     * {@link #analyzeUsages(URL, ClassesPatterns, DependencyUsageSink)}.
+     *
+     * @param url            the JAR file or directory to analyze
+     * @param excludeClasses a class list to exclude
+     * @param options        the options of the analysis
+     * @param sink           the sink receiving the class names referenced by the library, paired with the classes
+     *                       declaring those references
+     * @throws IOException if an error occurs reading a JAR or .class file
+     */
+    default void analyzeUsages(
+            URL url, ClassesPatterns excludeClasses, AnalysisOptions options, DependencyUsageSink sink)
+            throws IOException {
+        analyzeUsages(url, excludeClasses, sink);
+    }
 }
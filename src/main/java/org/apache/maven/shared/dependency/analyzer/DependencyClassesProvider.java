@@ -36,4 +36,38 @@ public interface DependencyClassesProvider {
      * @return the set of dependency usages
      */
     Set<DependencyUsage> getDependencyClasses(MavenProject project, ClassesPatterns excludedClasses) throws IOException;
+
+    /**
+     * Passes the dependency classes used by the given project, excluding those that match the given patterns, to a
+     * sink. The default implementation passes the usages of the set returned by
+     * {@link #getDependencyClasses(MavenProject, ClassesPatterns)}: implementations should override it to pass the
+     * usages as they are found.
+     *
+     * @param project         the Maven project
+     * @param excludedClasses patterns of classes to exclude
+     * @param sink            the sink receiving the dependency usages
+     */
+    default void getDependencyClasses(
+            MavenProject project, ClassesPatterns excludedClasses, DependencyUsageSink sink) throws IOException {
+        for (DependencyUsage usage : getDependencyClasses(project, excludedClasses)) {
+            sink.accept(usage.getDependencyClass(), usage.getUsedBy());
+        }
+    }
+
+    /**
+     * Passes the dependency classes used by the given project, excluding those that match the given patterns, to a
+     * sink, with the options of an analysis. The default implementation ignores the options and calls
+     * {@link #getDependencyClasses(MavenProject, ClassesPatterns, DependencyUsageSink)}: implementations analyzing
+     * class files should override it to forward the options to their {@link DependencyAnalyzer}.
+     *
+     * @param project         the Maven project
+     * @param excludedClasses patterns of classes to exclude
+     * @param options         the options of the analysis
+     * @param sink            the sink receiving the dependency usages
+     */
+    default void getDependencyClasses(
+            MavenProject project, ClassesPatterns excludedClasses, AnalysisOptions options, DependencyUsageSink sink)
+            throws IOException {
+        getDependencyClasses(project, excludedClasses, sink);
+    }
 }
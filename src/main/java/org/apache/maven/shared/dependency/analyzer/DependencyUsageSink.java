@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+/**
+ * Receives the dependency usages of analyzed classes as they are found, so that they need not be collected in a set
+ * first.
+ * <p>
+ * A usage may be received more than once. Usages are received by the thread requesting the analysis.
+ *
+ * @see DependencyAnalyzer#analyzeUsages(java.net.URL, ClassesPatterns, DependencyUsageSink)
+ */
+@FunctionalInterface
+public interface DependencyUsageSink {
+
+    /**
+     * Receives a dependency usage.
+     *
+     * @param dependencyClass the name of the used class
+     * @param usedBy          the name of the class using it
+     */
+    void accept(String dependencyClass, String usedBy);
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ClassIndexCache} storing one index file per JAR file in a directory, which may be shared by several
+ * builds and forked JVMs.
+ * <p>
+ * An entry is identified by the absolute path of the JAR file and the target release, and is valid as long as the
+ * size and last modification time of the JAR file are unchanged. When content hashing is enabled, an entry whose JAR
+ * file has the same size but a different modification time (for example after a CI cache restore) is still used if
+ * the SHA-256 hash of the JAR content is unchanged.
+ * <p>
+ * Entries are written to a temporary file moved into place atomically, so that concurrent processes never see
+ * partially written entries. An entry also records the number of its class names, so that an entry truncated
+ * otherwise is never taken for a complete one. The packages of the class names precede them, so that they can be read
+ * alone.
+ */
+public class FileClassIndexCache implements ClassIndexCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileClassIndexCache.class);
+
+    private static final String FORMAT = "class-index-4";
+
+    private static final int HEADER_LINES = 8;
+
+    private static final int BUF_SIZE = 8192;
+
+    private final Path directory;
+
+    private final boolean contentHash;
+
+    /**
+     * Creates a cache validating entries by JAR file size and modification time.
+     *
+     * @param directory the directory to store the index files in
+     */
+    public FileClassIndexCache(File directory) {
+        this(directory, false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param directory   the directory to store the index files in
+     * @param contentHash whether to fall back to a content hash comparison when the modification time has changed
+     */
+    public FileClassIndexCache(File directory, boolean contentHash) {
+        this.directory = directory.toPath();
+        this.contentHash = contentHash;
+    }
+
+    @Override
+    public Set<String> get(File jarFile) {
+        return get(jarFile, 0);
+    }
+
+    @Override
+    public Set<String> get(File jarFile, int release) {
+        return read(jarFile, release, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The packages are read from the beginning of the entry, without reading its class names.
+     */
+    @Override
+    public Set<String> getPackages(File jarFile, int release) {
+        return read(jarFile, release, true);
+    }
+
+    @Override
+    public void put(File jarFile, Set<String> classNames) {
+        put(jarFile, 0, classNames);
+    }
+
+    @Override
+    public void put(File jarFile, int release, Set<String> classNames) {
+        try {
+            Path jar = jarFile.toPath().toAbsolutePath();
+            Files.createDirectories(directory);
+
+            write(
+                    jar,
+                    release,
+                    entryPath(jar, release),
+                    ClassArtifactIndex.packagesOf(classNames),
+                    classNames,
+                    contentHash ? hash(jar) : "");
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot write class index cache entry for {}: {}", jarFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the package names or the class names of an entry.
+     */
+    private Set<String> read(File jarFile, int release, boolean packagesOnly) {
+        try {
+            Path jar = jarFile.toPath().toAbsolutePath();
+            Path entry = entryPath(jar, release);
+            if (!Files.isRegularFile(entry)) {
+                return null;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+                String[] header = readLines(reader, HEADER_LINES);
+                if (header == null
+                        || !FORMAT.equals(header[0])
+                        || !jar.toString().equals(header[1])
+                        || release != Integer.parseInt(header[5])
+                        || Files.size(jar) != Long.parseLong(header[2])) {
+                    return null;
+                }
+
+                boolean refresh = false;
+                if (Files.getLastModifiedTime(jar).toMillis() != Long.parseLong(header[3])) {
+                    if (!contentHash || header[4].isEmpty() || !header[4].equals(hash(jar))) {
+                        return null;
+                    }
+                    // same content, refresh the entry so that the next lookup is decided by the modification time
+                    refresh = true;
+                }
+
+                String[] packageNames = readLines(reader, Integer.parseInt(header[7]));
+                if (packageNames != null && packagesOnly && !refresh) {
+                    return new HashSet<>(Arrays.asList(packageNames));
+                }
+
+                String[] classNames = readLines(reader, Integer.parseInt(header[6]));
+                if (packageNames == null || classNames == null || reader.readLine() != null) {
+                    return null;
+                }
+
+                if (refresh) {
+                    write(jar, release, entry, Arrays.asList(packageNames), Arrays.asList(classNames), header[4]);
+                }
+                return new HashSet<>(Arrays.asList(packagesOnly ? packageNames : classNames));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Cannot read class index cache entry for {}: {}", jarFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads lines.
+     *
+     * @return the lines, or <code>null</code> if the end of the entry is reached first
+     */
+    private static String[] readLines(BufferedReader reader, int count) throws IOException {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = reader.readLine();
+            if (lines[i] == null) {
+                return null;
+            }
+        }
+        return lines;
+    }
+
+    private void write(
+            Path jar,
+            int release,
+            Path entry,
+            Collection<String> packageNames,
+            Collection<String> classNames,
+            String hash)
+            throws IOException {
+        Path tempFile = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                // every line ends with a line feed, so that an empty package name is read as a line
+                writeLine(writer, FORMAT);
+                writeLine(writer, jar.toString());
+                writeLine(writer, Long.toString(Files.size(jar)));
+                writeLine(writer, Long.toString(Files.getLastModifiedTime(jar).toMillis()));
+                writeLine(writer, hash);
+                writeLine(writer, Integer.toString(release));
+                writeLine(writer, Integer.toString(classNames.size()));
+                writeLine(writer, Integer.toString(packageNames.size()));
+                for (String packageName : packageNames) {
+                    writeLine(writer, packageName);
+                }
+                for (String className : classNames) {
+                    writeLine(writer, className);
+                }
+            }
+            Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void writeLine(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    private Path entryPath(Path jar, int release) {
+        String key = release == 0 ? jar.toString() : jar + "\n" + release;
+        return directory.resolve(toHex(digest("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8))) + ".idx");
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of a file.
+     */
+    static String hash(Path jar) throws IOException {
+        MessageDigest digest = digest("SHA-256");
+        byte[] buffer = new byte[BUF_SIZE];
+        try (InputStream in = Files.newInputStream(jar)) {
+            int i;
+            while ((i = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, i);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1 and SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A task submitted to an executor, which is run by the thread joining it if no executor thread has started it yet.
+ * <p>
+ * Joining therefore never waits for a task that is still queued, so tasks may fork further tasks on the same
+ * bounded executor without deadlocking.
+ *
+ * @param <T> the type of the task result
+ */
+final class ForkedTask<T> {
+
+    /**
+     * A computation that may fail with an {@link IOException}.
+     *
+     * @param <T> the type of the result
+     */
+    interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private final IOSupplier<T> supplier;
+
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private ForkedTask(IOSupplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Submits a task to an executor.
+     *
+     * @param supplier the computation
+     * @param executor the executor
+     * @param <T> the type of the task result
+     * @return the task
+     */
+    static <T> ForkedTask<T> fork(IOSupplier<T> supplier, Executor executor) {
+        ForkedTask<T> task = new ForkedTask<>(supplier);
+        try {
+            executor.execute(task::runIfUnclaimed);
+        } catch (RejectedExecutionException e) {
+            // the task is run by the joining thread
+        }
+        return task;
+    }
+
+    /**
+     * Waits for the task result, running the task in the current thread if it has not been started yet.
+     *
+     * @return the task result
+     * @throws IOException if the task failed with an I/O error
+     */
+    T join() throws IOException {
+        if (claimed.compareAndSet(false, true)) {
+            return supplier.get();
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Prevents the task from being started, unless it already has been. A cancelled task must not be joined.
+     */
+    void cancel() {
+        claimed.set(true);
+    }
+
+    private void runIfUnclaimed() {
+        if (claimed.compareAndSet(false, true)) {
+            try {
+                result.complete(supplier.get());
+            } catch (IOException e) {
+                result.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ClassIndexCache} keeping the class names of the most recently used JAR files in memory, within a budget of
+ * estimated bytes, and optionally reading through to another cache such as a {@link FileClassIndexCache}.
+ * <p>
+ * A single instance given to the {@link AnalysisOptions#withClassIndexCache(ClassIndexCache) options} of the analyses
+ * of all modules of a reactor build is shared by them, including modules built concurrently, so that a JAR file used by
+ * many modules is listed once per build.
+ * <p>
+ * An entry is identified by the absolute path of the JAR file and the target release, and is valid as long as the
+ * size and last modification time of the JAR file are unchanged. The least recently used entries are evicted when the
+ * estimated size of all entries exceeds the budget.
+ */
+public class MemoryClassIndexCache implements ClassIndexCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryClassIndexCache.class);
+
+    /**
+     * Estimated size of an entry without its class names.
+     */
+    private static final long ENTRY_SIZE = 128;
+
+    /**
+     * Estimated size of a class name without its characters: array slot, string and byte array headers.
+     */
+    private static final long CLASS_NAME_SIZE = 48;
+
+    /**
+     * Class names of a JAR file, sorted so that they are kept in a single array.
+     */
+    private static final class ClassNames extends AbstractSet<String> {
+        private final String[] names;
+
+        ClassNames(Set<String> classNames) {
+            names = classNames.toArray(new String[0]);
+            Arrays.sort(names);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && Arrays.binarySearch(names, o) >= 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Arrays.asList(names).iterator();
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+
+        private final long lastModified;
+
+        private final ClassNames classNames;
+
+        private final long weight;
+
+        Entry(BasicFileAttributes attributes, ClassNames classNames) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.classNames = classNames;
+
+            long weight = ENTRY_SIZE;
+            for (String className : classNames.names) {
+                weight += CLASS_NAME_SIZE + className.length();
+            }
+            this.weight = weight;
+        }
+
+        boolean isValid(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    private final long maximumSize;
+
+    private final ClassIndexCache delegate;
+
+    /**
+     * Entries by absolute JAR file path and target release, in access order, guarded by the cache.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize the budget of the cache, in estimated bytes
+     */
+    public MemoryClassIndexCache(long maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * Creates a cache reading through to another cache.
+     *
+     * @param maximumSize the budget of the cache, in estimated bytes
+     * @param delegate    the cache to look up entries not in memory and to store new entries in, or
+     *                    <code>null</code>
+     */
+    public MemoryClassIndexCache(long maximumSize, ClassIndexCache delegate) {
+        this.maximumSize = maximumSize;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Set<String> get(File jarFile) {
+        return get(jarFile, 0);
+    }
+
+    @Override
+    public Set<String> get(File jarFile, int release) {
+        String key = key(jarFile, release);
+        BasicFileAttributes attributes = readAttributes(jarFile);
+        if (attributes == null) {
+            return null;
+        }
+
+        Set<String> cachedClassNames = getInMemory(key, attributes);
+        if (cachedClassNames != null || delegate == null) {
+            return cachedClassNames;
+        }
+
+        Set<String> classNames = delegate.get(jarFile, release);
+        if (classNames != null) {
+            add(key, new Entry(attributes, new ClassNames(classNames)));
+        }
+        return classNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The packages of an entry not in memory are read from the delegate cache without keeping the entry in memory.
+     */
+    @Override
+    public Set<String> getPackages(File jarFile, int release) {
+        BasicFileAttributes attributes = readAttributes(jarFile);
+        if (attributes == null) {
+            return null;
+        }
+
+        Set<String> classNames = getInMemory(key(jarFile, release), attributes);
+        if (classNames != null) {
+            return ClassArtifactIndex.packagesOf(classNames);
+        }
+        return delegate == null ? null : delegate.getPackages(jarFile, release);
+    }
+
+    @Override
+    public void put(File jarFile, Set<String> classNames) {
+        put(jarFile, 0, classNames);
+    }
+
+    @Override
+    public void put(File jarFile, int release, Set<String> classNames) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class);
+            add(key(jarFile, release), new Entry(attributes, new ClassNames(classNames)));
+        } catch (IOException e) {
+            LOGGER.debug("Cannot write class index cache entry for {}: {}", jarFile, e.getMessage());
+        }
+
+        if (delegate != null) {
+            delegate.put(jarFile, release, classNames);
+        }
+    }
+
+    /**
+     * Gets the estimated size of the cache.
+     *
+     * @return the estimated size of all entries, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private static BasicFileAttributes readAttributes(File jarFile) {
+        try {
+            return Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read class index cache entry for {}: {}", jarFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized Set<String> getInMemory(String key, BasicFileAttributes attributes) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.isValid(attributes)) {
+                return entry.classNames;
+            }
+            remove(key);
+        }
+        return null;
+    }
+
+    private static String key(File jarFile, int release) {
+        String path = jarFile.getAbsolutePath();
+        return release == 0 ? path : path + '\n' + release;
+    }
+
+    private synchronized void add(String key, Entry entry) {
+        if (entry.weight > maximumSize) {
+            remove(key);
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            size -= previous.weight;
+        }
+        size += entry.weight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (size > maximumSize) {
+            size -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.weight;
+        }
+    }
+}
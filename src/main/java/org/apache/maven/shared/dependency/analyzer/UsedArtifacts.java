@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Usages of the dependency artifacts, aggregated from the usages of the project classes in a single pass: every
+ * dependency class is resolved to its artifact once, and tagged with whether it is used by main or test classes.
+ */
+final class UsedArtifacts {
+    private static final int MAIN = 1;
+
+    private static final int TEST = 2;
+
+    /**
+     * A dependency class used by the project classes.
+     */
+    private static final class DependencyClass {
+        /**
+         * <code>null</code> if the class is not contained in a dependency artifact.
+         */
+        private final Artifact artifact;
+
+        private int flags;
+
+        DependencyClass(Artifact artifact) {
+            this.artifact = artifact;
+        }
+    }
+
+    private final ClassArtifactIndex classToArtifactIndex;
+
+    private final Map<String, DependencyClass> dependencyClasses = new HashMap<>();
+
+    private final Map<Artifact, Set<DependencyUsage>> usages = new HashMap<>();
+
+    UsedArtifacts(ClassArtifactIndex classToArtifactIndex) {
+        this.classToArtifactIndex = classToArtifactIndex;
+    }
+
+    void addMainUsage(String dependencyClass, String usedBy) {
+        addUsage(dependencyClass, usedBy, MAIN);
+    }
+
+    void addTestUsage(String dependencyClass, String usedBy) {
+        addUsage(dependencyClass, usedBy, TEST);
+    }
+
+    /**
+     * Gets the usages of every used dependency artifact.
+     */
+    Map<Artifact, Set<DependencyUsage>> getUsages() {
+        return usages;
+    }
+
+    /**
+     * Gets the artifacts whose classes are only used by test classes.
+     */
+    Set<Artifact> getTestOnlyArtifacts() {
+        Set<Artifact> mainArtifacts = new HashSet<>();
+        Set<Artifact> testArtifacts = new LinkedHashSet<>();
+
+        for (DependencyClass dependencyClass : dependencyClasses.values()) {
+            if ((dependencyClass.flags & MAIN) != 0) {
+                mainArtifacts.add(dependencyClass.artifact);
+            } else if (dependencyClass.flags == TEST) {
+                testArtifacts.add(dependencyClass.artifact);
+            }
+        }
+
+        // artifacts of the classpath have distinct conflict ids
+        testArtifacts.removeAll(mainArtifacts);
+        return testArtifacts;
+    }
+
+    private void addUsage(String dependencyClassName, String usedBy, int flag) {
+        DependencyClass dependencyClass = dependencyClasses.get(dependencyClassName);
+
+        if (dependencyClass == null) {
+            Artifact artifact = classToArtifactIndex.get(dependencyClassName);
+            if (artifact != null && DefaultProjectDependencyAnalyzer.includedInJDK(artifact)) {
+                artifact = null;
+            }
+            dependencyClass = new DependencyClass(artifact);
+            dependencyClasses.put(dependencyClassName, dependencyClass);
+        }
+
+        if (dependencyClass.artifact != null) {
+            dependencyClass.flags |= flag;
+            usages.computeIfAbsent(dependencyClass.artifact, k -> new HashSet<>())
+                    .add(new DependencyUsage(dependencyClassName, usedBy));
+        }
+    }
+}
@@ -21,14 +21,21 @@ package org.apache.maven.shared.dependency.analyzer.asm;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import org.apache.maven.shared.dependency.analyzer.AnalysisOptions;
 import org.apache.maven.shared.dependency.analyzer.ClassFileVisitorUtils;
+import org.apache.maven.shared.dependency.analyzer.ClassNamePool;
 import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
 import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
 
 /**
  * ASMDependencyAnalyzer
@@ -39,12 +46,188 @@ import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
 @Singleton
 public class ASMDependencyAnalyzer implements DependencyAnalyzer {
 
+    /**
+     * Optional executor to visit class files in parallel.
+     */
+    private final Executor executor;
+
+    /**
+     * Whether directories are analyzed incrementally.
+     */
+    private final boolean incremental;
+
+    /**
+     * Whether method bodies are skipped.
+     */
+    private final boolean skipCode;
+
+    /**
+     * Creates an analyzer visiting all the class files of a directory sequentially, method bodies included.
+     */
+    public ASMDependencyAnalyzer() {
+        this(null, false, false);
+    }
+
+    /**
+     * Creates an analyzer. Its options are fixed, so that the analyzer may be shared by concurrent analyses. They may
+     * be complemented per analysis by {@link AnalysisOptions}.
+     * <p>
+     * With an executor, the class files of a directory are visited in parallel. The executor is not shut down by the
+     * analyzer. Results do not depend on whether an executor is used.
+     * <p>
+     * When directories are analyzed incrementally, the dependency classes of every class file of an analyzed
+     * directory are kept in a state file next to the directory, e.g.
+     * <code>target/dependency-analyzer/classes.state</code> for <code>target/classes</code>, and later analyses only
+     * visit the class files added or modified since, identified by their size and modification time.
+     * JAR files are always analyzed in full.
+     * <p>
+     * When method bodies are skipped, classes are analyzed from their constant pool, their class, field and method
+     * declarations, signatures and annotations only, which is several times faster and finds the same dependency
+     * classes in most cases, since the classes referenced by instructions are in the constant pool.
+     * The dependency classes found may differ in the following cases:
+     * <ul>
+     * <li>the declared types of local variables and their generic type arguments, known from the debug information of
+     * classes compiled with <code>-g</code>, are not found, e.g. <code>Foo</code> in
+     * <code>List&lt;Foo&gt; list = getList();</code> when <code>Foo</code> is not otherwise referenced;</li>
+     * <li>the annotations of local variables and the type annotations within method bodies are not found;</li>
+     * <li>the types of the method type arguments of <code>invokedynamic</code> bootstrap methods, e.g. the instantiated
+     * method type of a lambda expression, are not found.</li>
+     * </ul>
+     * Classes referenced by instructions, such as invoked methods, instantiated types, casts, caught exceptions and
+     * class literals, are found in both modes.
+     *
+     * @param executor    the executor, or <code>null</code> to visit class files sequentially
+     * @param incremental <code>true</code> to analyze directories incrementally
+     * @param skipCode    <code>true</code> to skip method bodies
+     */
+    public ASMDependencyAnalyzer(Executor executor, boolean incremental, boolean skipCode) {
+        this.executor = executor;
+        this.incremental = incremental;
+        this.skipCode = skipCode;
+    }
+
+    /**
+     * Returns whether method bodies are skipped.
+     *
+     * @return <code>true</code> if method bodies are skipped
+     * @see #ASMDependencyAnalyzer(Executor, boolean, boolean)
+     */
+    public boolean isSkipCode() {
+        return skipCode;
+    }
+
     @Override
     public Set<DependencyUsage> analyzeUsages(URL url, ClassesPatterns excludeClasses) throws IOException {
-        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor(excludeClasses);
+        ClassNamePool classNamePool = new ClassNamePool();
+
+        File directory = incremental ? toDirectory(url) : null;
+        if (directory != null) {
+            return IncrementalClassUsages.analyzeUsages(
+                    directory, IncrementalClassUsages.getStateFile(directory), excludeClasses, classNamePool, skipCode);
+        }
+
+        return collectUsages(url, excludeClasses, classNamePool, executor, skipCode).getDependencyUsages();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Without an executor, the usages of every class are passed to the sink as soon as the class is visited, so that
+     * the usages of the analyzed classes are never collected. With an executor, the usages of the classes visited in
+     * parallel are collected as ids and then passed to the sink by the current thread.
+     */
+    @Override
+    public void analyzeUsages(URL url, ClassesPatterns excludeClasses, DependencyUsageSink sink) throws IOException {
+        analyzeUsages(url, excludeClasses, executor, incremental, skipCode, sink);
+    }
 
-        ClassFileVisitorUtils.accept(url, visitor);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The executor of the options, when set, is used instead of the executor of the analyzer, and directories are
+     * analyzed incrementally, or method bodies skipped, if either the analyzer or the options say so.
+     */
+    @Override
+    public void analyzeUsages(
+            URL url, ClassesPatterns excludeClasses, AnalysisOptions options, DependencyUsageSink sink)
+            throws IOException {
+        analyzeUsages(
+                url,
+                excludeClasses,
+                options.getExecutor() != null ? options.getExecutor() : executor,
+                incremental || options.isIncremental(),
+                skipCode || options.isSkipCode(),
+                sink);
+    }
+
+    private static void analyzeUsages(
+            URL url,
+            ClassesPatterns excludeClasses,
+            Executor executor,
+            boolean incremental,
+            boolean skipCode,
+            DependencyUsageSink sink)
+            throws IOException {
+        ClassNamePool classNamePool = new ClassNamePool();
+
+        File directory = incremental ? toDirectory(url) : null;
+        if (directory != null) {
+            IncrementalClassUsages.analyzeUsages(
+                    directory,
+                    IncrementalClassUsages.getStateFile(directory),
+                    excludeClasses,
+                    classNamePool,
+                    skipCode,
+                    sink);
+        } else if (executor == null) {
+            DependencyClassFileVisitor visitor = new DependencyClassFileVisitor(excludeClasses, classNamePool, sink);
+            visitor.setSkipCode(skipCode);
+
+            ClassFileVisitorUtils.accept(url, visitor);
+        } else {
+            collectUsages(url, excludeClasses, classNamePool, executor, skipCode).forEachUsage(sink);
+        }
+    }
+
+    private static ResultCollector collectUsages(
+            URL url, ClassesPatterns excludeClasses, ClassNamePool classNamePool, Executor executor, boolean skipCode)
+            throws IOException {
+        if (executor == null) {
+            DependencyClassFileVisitor visitor = newVisitor(excludeClasses, classNamePool, skipCode);
+
+            ClassFileVisitorUtils.accept(url, visitor);
+
+            return visitor.getResultCollector();
+        }
+
+        List<DependencyClassFileVisitor> visitors = ClassFileVisitorUtils.accept(
+                url, () -> newVisitor(excludeClasses, classNamePool, skipCode), executor);
+
+        // the visitors share the class name pool, so their usages are merged as ids
+        ResultCollector resultCollector = visitors.get(0).getResultCollector();
+        for (DependencyClassFileVisitor visitor : visitors.subList(1, visitors.size())) {
+            resultCollector.addAll(visitor.getResultCollector());
+        }
+
+        return resultCollector;
+    }
+
+    private static DependencyClassFileVisitor newVisitor(
+            ClassesPatterns excludeClasses, ClassNamePool classNamePool, boolean skipCode) {
+        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor(excludeClasses, classNamePool);
+        visitor.setSkipCode(skipCode);
+        return visitor;
+    }
 
-        return visitor.getDependencyUsages();
+    private static File toDirectory(URL url) {
+        if (!"file".equalsIgnoreCase(url.getProtocol())) {
+            return null;
+        }
+        try {
+            File file = new File(url.toURI());
+            return file.isDirectory() ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
     }
 }
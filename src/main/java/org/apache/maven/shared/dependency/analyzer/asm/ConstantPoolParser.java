@@ -18,23 +18,20 @@
  */
 package org.apache.maven.shared.dependency.analyzer.asm;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
-import org.objectweb.asm.Type;
-
 /**
  * A small parser to read the constant pool directly, in case it contains references
  * ASM does not support.
  *
  * Adapted from <a href="https://stackoverflow.com/questions/32255023/how-would-i-go-about-parsing-the-java-class-file-constant-pool/32278587#32278587">Stack Overflow</a>
  *
+ * The constant pool is scanned once, recording only the offsets of UTF8 entries and which of them are referenced as
+ * class names or as name and type descriptors. Only those referenced entries are decoded afterwards, and method
+ * descriptors are scanned in their encoded form, so that only the class names they contain are decoded.
+ *
  * Constant pool types:
  *
  * @see <a href="https://docs.oracle.com/javase/specs/jvms/se9/html/jvms-4.html#jvms-4.4">JVM 9 Sepc</a>
@@ -104,73 +101,61 @@ public class ConstantPoolParser {
 
     private static final int OX3F = 0x3F;
 
-    static Set<String> getConstantPoolClassReferences(byte[] b) throws UnknownConstantPoolTypeException {
-        return parseConstantPoolClassReferences(ByteBuffer.wrap(b));
-    }
+    /** UTF8 entry referenced by a class entry. */
+    private static final byte CLASS_REFERENCE = 1;
+
+    /** UTF8 entry referenced as descriptor by a name and type entry. */
+    private static final byte TYPE_REFERENCE = 2;
 
-    private static Set<String> parseConstantPoolClassReferences(ByteBuffer buf)
-            throws UnknownConstantPoolTypeException {
-        if (buf.order(ByteOrder.BIG_ENDIAN).getInt() != HEAD) {
+    static Set<String> getConstantPoolClassReferences(byte[] b) throws UnknownConstantPoolTypeException {
+        if (readInt(b, 0) != HEAD) {
             return Collections.emptySet();
         }
-        buf.getChar();
-        buf.getChar(); // minor + ver
-        Set<Integer> classReferences = new HashSet<>();
-        Set<Integer> typeReferences = new HashSet<>();
-        Map<Integer, String> stringConstants = new HashMap<>();
-        for (int ix = 1, num = buf.getChar(); ix < num; ix++) {
-            byte tag = buf.get();
+        // skip minor + major version
+        int count = readUnsignedShort(b, 8);
+
+        // offsets of the length of UTF8 entries, 0 for other entries
+        int[] utf8Offsets = new int[count];
+        byte[] references = new byte[count];
+        int offset = 10;
+        for (int ix = 1; ix < count; ix++) {
+            byte tag = b[offset++];
             switch (tag) {
                 case CONSTANT_UTF8:
-                    stringConstants.put(ix, decodeString(buf));
+                    utf8Offsets[ix] = offset;
+                    offset += 2 + readUnsignedShort(b, offset);
                     break;
                 case CONSTANT_CLASS:
-                    classReferences.add((int) buf.getChar());
+                    references[readUnsignedShort(b, offset)] |= CLASS_REFERENCE;
+                    offset += 2;
+                    break;
+                case CONSTANT_NAME_AND_TYPE:
+                    references[readUnsignedShort(b, offset + 2)] |= TYPE_REFERENCE;
+                    offset += 4;
                     break;
                 case CONSTANT_METHOD_TYPE:
-                    consumeMethodType(buf);
+                case CONSTANT_STRING:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    offset += 2;
+                    break;
+                case CONSTANT_METHODHANDLE:
+                    offset += 3;
                     break;
                 case CONSTANT_FIELDREF:
                 case CONSTANT_METHODREF:
                 case CONSTANT_INTERFACEMETHODREF:
-                    consumeReference(buf);
-                    break;
-                case CONSTANT_NAME_AND_TYPE:
-                    buf.getChar();
-                    typeReferences.add((int) buf.getChar());
-                    break;
                 case CONSTANT_INTEGER:
-                    consumeInt(buf);
-                    break;
                 case CONSTANT_FLOAT:
-                    consumeFloat(buf);
+                case CONSTANT_INVOKE:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    offset += 4;
                     break;
                 case CONSTANT_DOUBLE:
-                    consumeDouble(buf);
-                    ix++;
-                    break;
                 case CONSTANT_LONG:
-                    consumeLong(buf);
+                    offset += 8;
                     ix++;
                     break;
-                case CONSTANT_STRING:
-                    consumeString(buf);
-                    break;
-                case CONSTANT_METHODHANDLE:
-                    consumeMethodHandle(buf);
-                    break;
-                case CONSTANT_INVOKE:
-                    consumeDynamic(buf);
-                    break;
-                case CONSTANT_INVOKE_DYNAMIC:
-                    consumeInvokeDynamic(buf);
-                    break;
-                case CONSTANT_MODULE:
-                    consumeModule(buf);
-                    break;
-                case CONSTANT_PACKAGE:
-                    consumePackage(buf);
-                    break;
                 default:
                     throw new UnknownConstantPoolTypeException("Unknown constant pool type '" + tag + "'");
             }
@@ -178,111 +163,138 @@ public class ConstantPoolParser {
 
         Set<String> result = new HashSet<>();
 
-        for (Integer classRef : classReferences) {
-            addClassToResult(result, stringConstants.get(classRef));
-        }
-
-        for (Integer typeRef : typeReferences) {
-            String typeName = stringConstants.get(typeRef);
+        for (int ix = 1; ix < count; ix++) {
+            if (references[ix] == 0) {
+                continue;
+            }
+            int utf8Offset = utf8Offsets[ix];
+            if (utf8Offset == 0) {
+                throw new IllegalArgumentException("Constant pool entry " + ix + " is not a UTF8 entry");
+            }
+            int start = utf8Offset + 2;
+            int end = start + readUnsignedShort(b, utf8Offset);
 
-            if (Type.getType(typeName).getSort() == Type.METHOD) {
-                addClassToResult(result, Type.getReturnType(typeName).getInternalName());
-                Type[] argumentTypes = Type.getArgumentTypes(typeName);
-                for (Type argumentType : argumentTypes) {
-                    addClassToResult(result, argumentType.getInternalName());
-                }
+            if ((references[ix] & CLASS_REFERENCE) != 0) {
+                addClassToResult(result, b, start, end);
+            }
+            if ((references[ix] & TYPE_REFERENCE) != 0) {
+                addMethodDescriptorClassesToResult(result, b, start, end);
             }
         }
 
         return result;
     }
 
-    private static void addClassToResult(Set<String> result, String className) {
-        // filter out things from unnamed package, probably a false-positive
-        if (isImportableClass(className)) {
-            result.add(className);
+    /**
+     * Adds the classes of the argument and return types of a method descriptor, as their internal names, i.e. the
+     * descriptor for arrays. Field descriptors are ignored.
+     */
+    private static void addMethodDescriptorClassesToResult(Set<String> result, byte[] b, int start, int end) {
+        if (start == end || "VZCBSIFJD[L(".indexOf(b[start]) < 0) {
+            throw new IllegalArgumentException("Invalid descriptor");
         }
-    }
-
-    @SuppressWarnings("RedundantCast")
-    private static String decodeString(ByteBuffer buf) {
-        int size = buf.getChar();
-        int oldLimit = buf.limit();
-        // Explicit cast for compatibility with covariant return type on JDK 9's ByteBuffer
-        ((Buffer) buf).limit(buf.position() + size);
-        StringBuilder sb = new StringBuilder(size + (size >> 1) + 16);
-        while (buf.hasRemaining()) {
-            byte b = buf.get();
-            if (b > 0) {
-                sb.append((char) b);
-            } else {
-                int b2 = buf.get();
-                if ((b & OXF0) != OXE0) {
-                    sb.append((char) ((b & 0x1F) << 6 | b2 & OX3F));
-                } else {
-                    int b3 = buf.get();
-                    sb.append((char) ((b & 0x0F) << 12 | (b2 & OX3F) << 6 | b3 & OX3F));
-                }
-            }
+        if (b[start] != '(') {
+            return;
         }
-        ((Buffer) buf).limit(oldLimit);
-        return sb.toString();
-    }
-
-    private static boolean isImportableClass(String className) {
-        // without a slash, class must be in unnamed package, which can't be imported
-        return className.indexOf('/') != -1;
-    }
-
-    private static void consumeMethodType(ByteBuffer buf) {
-        buf.getChar();
-    }
-
-    private static void consumeReference(ByteBuffer buf) {
-        buf.getChar();
-        buf.getChar();
-    }
-
-    private static void consumeInt(ByteBuffer buf) {
-        buf.getInt();
-    }
 
-    private static void consumeFloat(ByteBuffer buf) {
-        buf.getFloat();
+        int offset = start + 1;
+        while (charAt(b, offset, end) != ')') {
+            offset = addTypeToResult(result, b, offset, end, false);
+        }
+        addTypeToResult(result, b, offset + 1, end, true);
     }
 
-    private static void consumeDouble(ByteBuffer buf) {
-        buf.getDouble();
-    }
+    /**
+     * Adds the class of a type of a method descriptor, like {@link org.objectweb.asm.Type#getArgumentTypes(String)}
+     * and {@link org.objectweb.asm.Type#getReturnType(String)} followed by
+     * {@link org.objectweb.asm.Type#getInternalName()} would.
+     *
+     * @param returnType whether the type is the return type, which extends to the end of the descriptor
+     * @return the offset following the type
+     */
+    private static int addTypeToResult(Set<String> result, byte[] b, int start, int end, boolean returnType) {
+        int offset = start;
+        while (charAt(b, offset, end) == '[') {
+            offset++;
+        }
+        byte elementType = b[offset];
+        int typeEnd;
+        if (returnType) {
+            typeEnd = end;
+        } else if (elementType == 'L') {
+            typeEnd = offset + 1;
+            while (charAt(b, typeEnd, end) != ';') {
+                typeEnd++;
+            }
+            typeEnd++;
+        } else {
+            typeEnd = offset + 1;
+        }
 
-    private static void consumeLong(ByteBuffer buf) {
-        buf.getLong();
+        if ("VZCBSIFJDL".indexOf(elementType) < 0) {
+            throw new IllegalArgumentException("Invalid descriptor");
+        } else if (offset > start) {
+            // array type: the descriptor
+            addClassToResult(result, b, start, typeEnd);
+        } else if (elementType == 'L') {
+            // object type: strip the L and ;
+            addClassToResult(result, b, start + 1, typeEnd - 1);
+        }
+        // primitive types are no classes
+        return typeEnd;
     }
 
-    private static void consumeString(ByteBuffer buf) {
-        buf.getChar();
+    private static byte charAt(byte[] b, int offset, int end) {
+        if (offset >= end) {
+            throw new IllegalArgumentException("Invalid descriptor");
+        }
+        return b[offset];
     }
 
-    private static void consumeMethodHandle(ByteBuffer buf) {
-        buf.get();
-        buf.getChar();
+    private static void addClassToResult(Set<String> result, byte[] b, int start, int end) {
+        // filter out things from unnamed package, probably a false-positive
+        if (isImportableClass(b, start, end)) {
+            result.add(decodeString(b, start, end));
+        }
     }
 
-    private static void consumeDynamic(ByteBuffer buf) {
-        buf.getChar(); // u2 bootstrap_method_attr_index;
-        buf.getChar(); // u2 name_and_type_index;
+    private static String decodeString(byte[] b, int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        int offset = start;
+        while (offset < end) {
+            byte b1 = b[offset++];
+            if (b1 > 0) {
+                chars[length++] = (char) b1;
+            } else {
+                int b2 = b[offset++];
+                if ((b1 & OXF0) != OXE0) {
+                    chars[length++] = (char) ((b1 & 0x1F) << 6 | b2 & OX3F);
+                } else {
+                    int b3 = b[offset++];
+                    chars[length++] = (char) ((b1 & 0x0F) << 12 | (b2 & OX3F) << 6 | b3 & OX3F);
+                }
+            }
+        }
+        return new String(chars, 0, length);
     }
 
-    private static void consumeInvokeDynamic(ByteBuffer buf) {
-        buf.getChar();
-        buf.getChar();
+    private static boolean isImportableClass(byte[] b, int start, int end) {
+        // without a slash, class must be in unnamed package, which can't be imported
+        for (int i = start; i < end; i++) {
+            if (b[i] == '/') {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static void consumeModule(ByteBuffer buf) {
-        buf.getChar();
+    private static int readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 24 | (b[offset + 1] & 0xFF) << 16 | (b[offset + 2] & 0xFF) << 8
+                | b[offset + 3] & 0xFF;
     }
 
-    private static void consumePackage(ByteBuffer buf) {
-        buf.getChar();
+    private static int readUnsignedShort(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 8 | b[offset + 1] & 0xFF;
     }
 }
@@ -31,7 +31,7 @@ import org.objectweb.asm.Type;
 public class DefaultAnnotationVisitor extends AnnotationVisitor {
     private final ResultCollector resultCollector;
 
-    private final String usedByClass;
+    private String usedByClass;
 
     /**
      * <p>Constructor for DefaultAnnotationVisitor.</p>
@@ -44,6 +44,10 @@ public class DefaultAnnotationVisitor extends AnnotationVisitor {
         this.usedByClass = usedByClass;
     }
 
+    void setUsedByClass(String usedByClass) {
+        this.usedByClass = usedByClass;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void visit(final String name, final Object value) {
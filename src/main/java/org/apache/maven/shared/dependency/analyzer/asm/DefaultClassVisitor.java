@@ -44,7 +44,7 @@ public class DefaultClassVisitor extends ClassVisitor {
 
     private final MethodVisitor methodVisitor;
 
-    private final String usedByClass;
+    private String usedByClass;
 
     /**
      * <p>Constructor for DefaultClassVisitor.</p>
@@ -71,6 +71,15 @@ public class DefaultClassVisitor extends ClassVisitor {
         this.usedByClass = usedByClass;
     }
 
+    /**
+     * Sets the class the visited references are used by, so that the visitor can be reused for another class.
+     *
+     * @param usedByClass the name of the visited class
+     */
+    void setUsedByClass(String usedByClass) {
+        this.usedByClass = usedByClass;
+    }
+
     /**
      * <p>visit.</p>
      *
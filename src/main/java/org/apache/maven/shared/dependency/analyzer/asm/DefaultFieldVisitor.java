@@ -33,7 +33,7 @@ public class DefaultFieldVisitor extends FieldVisitor {
 
     private final ResultCollector resultCollector;
 
-    private final String usedByClass;
+    private String usedByClass;
 
     /**
      * <p>Constructor for DefaultFieldVisitor.</p>
@@ -49,6 +49,10 @@ public class DefaultFieldVisitor extends FieldVisitor {
         this.usedByClass = usedByClass;
     }
 
+    void setUsedByClass(String usedByClass) {
+        this.usedByClass = usedByClass;
+    }
+
     /** {@inheritDoc} */
     @Override
     public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
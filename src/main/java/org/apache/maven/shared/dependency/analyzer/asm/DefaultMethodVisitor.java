@@ -18,8 +18,6 @@
  */
 package org.apache.maven.shared.dependency.analyzer.asm;
 
-import java.util.Arrays;
-
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
@@ -43,7 +41,7 @@ public class DefaultMethodVisitor extends MethodVisitor {
 
     private final ResultCollector resultCollector;
 
-    private final String usedByClass;
+    private String usedByClass;
 
     /**
      * <p>Constructor for DefaultMethodVisitor.</p>
@@ -64,6 +62,10 @@ public class DefaultMethodVisitor extends MethodVisitor {
         this.usedByClass = usedByClass;
     }
 
+    void setUsedByClass(String usedByClass) {
+        this.usedByClass = usedByClass;
+    }
+
     /** {@inheritDoc} */
     @Override
     public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
@@ -172,9 +174,10 @@ public class DefaultMethodVisitor extends MethodVisitor {
     @Override
     public void visitInvokeDynamicInsn(
             String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
-        Arrays.stream(bootstrapMethodArguments)
-                .filter(Type.class::isInstance)
-                .map(Type.class::cast)
-                .forEach(t -> resultCollector.addType(usedByClass, t));
+        for (Object bootstrapMethodArgument : bootstrapMethodArguments) {
+            if (bootstrapMethodArgument instanceof Type) {
+                resultCollector.addType(usedByClass, (Type) bootstrapMethodArgument);
+            }
+        }
     }
 }
@@ -29,7 +29,7 @@ import org.objectweb.asm.signature.SignatureVisitor;
  */
 public class DefaultSignatureVisitor extends SignatureVisitor {
     private final ResultCollector resultCollector;
-    private final String usedByClass;
+    private String usedByClass;
 
     /**
      * <p>Constructor for DefaultSignatureVisitor.</p>
@@ -42,6 +42,10 @@ public class DefaultSignatureVisitor extends SignatureVisitor {
         this.usedByClass = usedByClass;
     }
 
+    void setUsedByClass(String usedByClass) {
+        this.usedByClass = usedByClass;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void visitClassType(final String name) {
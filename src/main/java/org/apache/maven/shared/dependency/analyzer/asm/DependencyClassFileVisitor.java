@@ -25,14 +25,12 @@ import java.io.UncheckedIOException;
 import java.util.Set;
 
 import org.apache.maven.shared.dependency.analyzer.ClassFileVisitor;
+import org.apache.maven.shared.dependency.analyzer.ClassNamePool;
 import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
 import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
-import org.objectweb.asm.AnnotationVisitor;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.FieldVisitor;
-import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.signature.SignatureVisitor;
 
 /**
  * Computes the set of classes referenced by visited class files, using
@@ -44,15 +42,56 @@ import org.objectweb.asm.signature.SignatureVisitor;
 public class DependencyClassFileVisitor implements ClassFileVisitor {
     private static final int BUF_SIZE = 8192;
 
-    private final ResultCollector resultCollector = new ResultCollector();
+    private final ResultCollector resultCollector;
 
     private final ClassesPatterns excludedClasses;
 
+    private final ClassNamePool classNamePool;
+
+    private boolean skipCode;
+
+    /**
+     * The visitors of the ASM visitor chain, created on the first visited class and reused for the next ones.
+     */
+    private DefaultAnnotationVisitor annotationVisitor;
+
+    private DefaultSignatureVisitor signatureVisitor;
+
+    private DefaultFieldVisitor fieldVisitor;
+
+    private DefaultMethodVisitor methodVisitor;
+
+    private DefaultClassVisitor classVisitor;
+
     /**
      * <p>Constructor for DependencyClassFileVisitor.</p>
+     *
+     * @param excludedClasses the classes not to visit
+     * @param classNamePool the pool of the class names of the collected usages, which may be shared by visitors
      */
-    public DependencyClassFileVisitor(ClassesPatterns excludedClasses) {
+    public DependencyClassFileVisitor(ClassesPatterns excludedClasses, ClassNamePool classNamePool) {
+        this(excludedClasses, classNamePool, null);
+    }
+
+    /**
+     * Creates a visitor passing the usages of the visited classes to a sink as they are found, instead of collecting
+     * them.
+     *
+     * @param excludedClasses the classes not to visit
+     * @param classNamePool the pool of the class names of the usages
+     * @param sink the sink, or <code>null</code> to collect the usages
+     */
+    DependencyClassFileVisitor(ClassesPatterns excludedClasses, ClassNamePool classNamePool, DependencyUsageSink sink) {
         this.excludedClasses = excludedClasses;
+        this.classNamePool = classNamePool;
+        this.resultCollector = new ResultCollector(classNamePool, sink);
+    }
+
+    /**
+     * <p>Constructor for DependencyClassFileVisitor.</p>
+     */
+    public DependencyClassFileVisitor(ClassesPatterns excludedClasses) {
+        this(excludedClasses, new ClassNamePool());
     }
 
     /**
@@ -62,6 +101,17 @@ public class DependencyClassFileVisitor implements ClassFileVisitor {
         this(new ClassesPatterns());
     }
 
+    /**
+     * Sets whether method bodies are skipped, so that the dependency classes are found from the constant pool, the
+     * class, field and method declarations and their annotations only.
+     *
+     * @param skipCode <code>true</code> to skip method bodies
+     * @see ASMDependencyAnalyzer#ASMDependencyAnalyzer(java.util.concurrent.Executor, boolean, boolean)
+     */
+    public void setSkipCode(boolean skipCode) {
+        this.skipCode = skipCode;
+    }
+
     /**
      * Visits a class.
      *
@@ -72,38 +122,77 @@ public class DependencyClassFileVisitor implements ClassFileVisitor {
      */
     @Override
     public void visitClass(String className, InputStream in) {
+        byte[] byteCode;
         try {
-            byte[] byteCode = toByteArray(in);
+            byteCode = toByteArray(in);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        visitByteCode(className, byteCode);
+    }
 
-            if (excludedClasses.isMatch(className)) {
-                return;
-            }
+    /**
+     * Visits a class.
+     *
+     * @param className the name of the class being visited
+     * @param byteCode the byte code of the class
+     * @throws VisitClassException if the .class file is corrupt
+     */
+    @Override
+    public void visitByteCode(String className, byte[] byteCode) {
+        if (excludedClasses.isMatch(className)) {
+            return;
+        }
+
+        // the class name is also referenced by the usages of other visited classes
+        String pooledName = classNamePool.intern(className);
 
+        try {
             ClassReader reader = new ClassReader(byteCode);
 
             final Set<String> constantPoolClassRefs = ConstantPoolParser.getConstantPoolClassReferences(byteCode);
             for (String string : constantPoolClassRefs) {
-                resultCollector.addName(className, string);
+                resultCollector.addName(pooledName, string);
             }
 
-            AnnotationVisitor annotationVisitor = new DefaultAnnotationVisitor(resultCollector, className);
-            SignatureVisitor signatureVisitor = new DefaultSignatureVisitor(resultCollector, className);
-            FieldVisitor fieldVisitor = new DefaultFieldVisitor(annotationVisitor, resultCollector, className);
-            MethodVisitor methodVisitor =
-                    new DefaultMethodVisitor(annotationVisitor, signatureVisitor, resultCollector, className);
-            ClassVisitor classVisitor = new DefaultClassVisitor(
-                    signatureVisitor, annotationVisitor, fieldVisitor, methodVisitor, resultCollector, className);
-
-            reader.accept(classVisitor, 0);
-        } catch (IOException exception) {
-            throw new UncheckedIOException(exception);
+            reader.accept(getClassVisitor(pooledName), skipCode ? ClassReader.SKIP_CODE : 0);
         } catch (IndexOutOfBoundsException e) {
             // some bug inside ASM causes an IOB exception.
             // this happens when the class isn't valid.
-            throw new VisitClassException("Unable to process: " + className, e);
+            throw new VisitClassException("Unable to process: " + pooledName, e);
         } catch (UnknownConstantPoolTypeException | IllegalArgumentException e) {
-            throw new VisitClassException("Byte code of '" + className + "' is corrupt", e);
+            throw new VisitClassException("Byte code of '" + pooledName + "' is corrupt", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isExcluded(String className) {
+        return excludedClasses.isMatch(className);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isPackageExcluded(String packageName) {
+        return excludedClasses.isPackageMatch(packageName);
+    }
+
+    private ClassVisitor getClassVisitor(String className) {
+        if (classVisitor == null) {
+            annotationVisitor = new DefaultAnnotationVisitor(resultCollector, className);
+            signatureVisitor = new DefaultSignatureVisitor(resultCollector, className);
+            fieldVisitor = new DefaultFieldVisitor(annotationVisitor, resultCollector, className);
+            methodVisitor = new DefaultMethodVisitor(annotationVisitor, signatureVisitor, resultCollector, className);
+            classVisitor = new DefaultClassVisitor(
+                    signatureVisitor, annotationVisitor, fieldVisitor, methodVisitor, resultCollector, className);
+        } else {
+            annotationVisitor.setUsedByClass(className);
+            signatureVisitor.setUsedByClass(className);
+            fieldVisitor.setUsedByClass(className);
+            methodVisitor.setUsedByClass(className);
+            classVisitor.setUsedByClass(className);
         }
+        return classVisitor;
     }
 
     private byte[] toByteArray(InputStream in) throws IOException {
@@ -125,6 +214,10 @@ public class DependencyClassFileVisitor implements ClassFileVisitor {
         return resultCollector.getDependencies();
     }
 
+    ResultCollector getResultCollector() {
+        return resultCollector;
+    }
+
     /**
      * <p>getDependencyUsages.</p>
      *
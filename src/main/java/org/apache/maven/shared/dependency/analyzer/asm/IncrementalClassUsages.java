@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.shared.dependency.analyzer.ClassFileVisitor;
+import org.apache.maven.shared.dependency.analyzer.ClassFileVisitorUtils;
+import org.apache.maven.shared.dependency.analyzer.ClassNamePool;
+import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzes the classes of a directory incrementally: the dependency classes of every class file are kept in a state
+ * file together with the size and modification time of the class file, and only added or modified class files are
+ * visited again on the next analysis.
+ *
+ * @see ASMDependencyAnalyzer#ASMDependencyAnalyzer(java.util.concurrent.Executor, boolean, boolean)
+ */
+final class IncrementalClassUsages {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalClassUsages.class);
+
+    private static final int FORMAT = 3;
+
+    private static final String STATE_DIRECTORY = "dependency-analyzer";
+
+    /**
+     * Per class file state.
+     */
+    private static final class Entry {
+        private final long lastModified;
+
+        private final long size;
+
+        private final Set<String> dependencyClasses;
+
+        Entry(long lastModified, long size, Set<String> dependencyClasses) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.dependencyClasses = dependencyClasses;
+        }
+    }
+
+    private IncrementalClassUsages() {
+        // private constructor for utility class
+    }
+
+    /**
+     * Gets the state file of a directory, which is kept next to the directory, e.g.
+     * <code>target/dependency-analyzer/classes.state</code> for <code>target/classes</code>.
+     *
+     * @param directory the analyzed directory
+     * @return the state file
+     */
+    static File getStateFile(File directory) {
+        File absoluteDirectory = directory.getAbsoluteFile();
+        return new File(
+                new File(absoluteDirectory.getParentFile(), STATE_DIRECTORY), absoluteDirectory.getName() + ".state");
+    }
+
+    /**
+     * Analyzes the classes of a directory, visiting only the class files changed since the last analysis.
+     *
+     * @param directory      the directory to analyze
+     * @param stateFile      the file keeping the state between analyses
+     * @param excludeClasses the classes to exclude
+     * @param classNamePool  the pool of the class names of the usages
+     * @param skipCode       whether method bodies are skipped
+     * @return the set of class names referenced by the classes, paired with the classes declaring those references
+     * @throws IOException if an error occurs reading a .class file or writing the state file
+     */
+    static Set<DependencyUsage> analyzeUsages(
+            File directory,
+            File stateFile,
+            ClassesPatterns excludeClasses,
+            ClassNamePool classNamePool,
+            boolean skipCode)
+            throws IOException {
+        Set<DependencyUsage> dependencyUsages = new HashSet<>();
+        analyzeUsages(
+                directory,
+                stateFile,
+                excludeClasses,
+                classNamePool,
+                skipCode,
+                (dependencyClass, usedBy) -> dependencyUsages.add(new DependencyUsage(dependencyClass, usedBy)));
+        return dependencyUsages;
+    }
+
+    /**
+     * Analyzes the classes of a directory, visiting only the class files changed since the last analysis, and passes
+     * the usages of every class to a sink as soon as the class is walked.
+     *
+     * @param directory      the directory to analyze
+     * @param stateFile      the file keeping the state between analyses
+     * @param excludeClasses the classes to exclude
+     * @param classNamePool  the pool of the class names of the usages
+     * @param skipCode       whether method bodies are skipped
+     * @param sink           the sink receiving the class names referenced by the classes, paired with the classes
+     *                       declaring those references
+     * @throws IOException if an error occurs reading a .class file or writing the state file
+     */
+    static void analyzeUsages(
+            File directory,
+            File stateFile,
+            ClassesPatterns excludeClasses,
+            ClassNamePool classNamePool,
+            boolean skipCode,
+            DependencyUsageSink sink)
+            throws IOException {
+        Map<String, Entry> previous = readState(stateFile.toPath(), classNamePool, skipCode);
+
+        IncrementalVisitor visitor =
+                new IncrementalVisitor(directory, previous, excludeClasses, classNamePool, skipCode, sink);
+        ClassFileVisitorUtils.accept(directory.toURI().toURL(), visitor);
+
+        Map<String, Entry> current = visitor.current;
+        if (visitor.changed || !current.keySet().equals(previous.keySet())) {
+            writeState(stateFile.toPath(), current, skipCode);
+        }
+    }
+
+    /**
+     * Visits the class files of a directory that were added or modified since the previous analysis, reusing the state
+     * of the others. Excluded classes are neither visited nor kept in the state.
+     */
+    private static final class IncrementalVisitor implements ClassFileVisitor {
+
+        private final Path base;
+
+        private final Map<String, Entry> previous;
+
+        private final ClassesPatterns excludeClasses;
+
+        private final ClassNamePool classNamePool;
+
+        private final DependencyUsageSink sink;
+
+        /**
+         * Visitor of the changed class files, passing the dependency classes of the visited class to
+         * {@link #dependencyClasses}.
+         */
+        private final DependencyClassFileVisitor visitor;
+
+        private final Map<String, Entry> current = new HashMap<>();
+
+        private Set<String> dependencyClasses;
+
+        private boolean changed;
+
+        /**
+         * Attributes of the class file about to be visited.
+         */
+        private long lastModified;
+
+        private long size;
+
+        IncrementalVisitor(
+                File directory,
+                Map<String, Entry> previous,
+                ClassesPatterns excludeClasses,
+                ClassNamePool classNamePool,
+                boolean skipCode,
+                DependencyUsageSink sink) {
+            this.base = directory.toPath();
+            this.previous = previous;
+            this.excludeClasses = excludeClasses;
+            this.classNamePool = classNamePool;
+            this.sink = sink;
+            this.visitor = new DependencyClassFileVisitor(
+                    new ClassesPatterns(),
+                    classNamePool,
+                    (dependencyClass, usedBy) -> dependencyClasses.add(dependencyClass));
+            visitor.setSkipCode(skipCode);
+        }
+
+        @Override
+        public boolean isPackageExcluded(String packageName) {
+            return excludeClasses.isPackageMatch(packageName);
+        }
+
+        /**
+         * Skips the excluded classes and the class files unchanged since the previous analysis, whose state is reused.
+         */
+        @Override
+        public boolean isExcluded(String className) {
+            if (excludeClasses.isMatch(className)) {
+                return true;
+            }
+
+            Path path = base.resolve(className.replace('.', File.separatorChar) + ".class");
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                lastModified = attributes.lastModifiedTime().toMillis();
+                size = attributes.size();
+            } catch (IOException e) {
+                // visited anyway, and again on the next analysis
+                lastModified = -1;
+                size = -1;
+                return false;
+            }
+
+            Entry entry = previous.get(className);
+            if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+                add(classNamePool.intern(className), entry);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void visitClass(String className, InputStream in) {
+            throw new UnsupportedOperationException("byte code is expected to be passed as an array");
+        }
+
+        @Override
+        public void visitByteCode(String className, byte[] byteCode) {
+            dependencyClasses = new HashSet<>();
+            visitor.visitByteCode(className, byteCode);
+
+            add(classNamePool.intern(className), new Entry(lastModified, size, dependencyClasses));
+            changed = true;
+        }
+
+        private void add(String className, Entry entry) {
+            current.put(className, entry);
+            for (String dependencyClass : entry.dependencyClasses) {
+                sink.accept(dependencyClass, className);
+            }
+        }
+    }
+
+    private static Map<String, Entry> readState(Path stateFile, ClassNamePool classNamePool, boolean skipCode) {
+        if (!Files.isRegularFile(stateFile)) {
+            return Collections.emptyMap();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            // the state of another analysis mode is not reused
+            if (in.readInt() != FORMAT || in.readBoolean() != skipCode) {
+                return Collections.emptyMap();
+            }
+
+            int count = in.readInt();
+            Map<String, Entry> state = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String className = classNamePool.intern(in.readUTF());
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                int dependencyCount = in.readInt();
+                Set<String> dependencyClasses = new HashSet<>(dependencyCount * 2);
+                for (int j = 0; j < dependencyCount; j++) {
+                    dependencyClasses.add(classNamePool.intern(in.readUTF()));
+                }
+                state.put(className, new Entry(lastModified, size, dependencyClasses));
+            }
+            return state;
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read incremental analysis state {}, analyzing all classes: {}", stateFile, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private static void writeState(Path stateFile, Map<String, Entry> state, boolean skipCode) throws IOException {
+        Files.createDirectories(stateFile.getParent());
+        Path tempFile = Files.createTempFile(stateFile.getParent(), stateFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT);
+                out.writeBoolean(skipCode);
+                out.writeInt(state.size());
+                for (Map.Entry<String, Entry> entry : state.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().lastModified);
+                    out.writeLong(entry.getValue().size);
+                    Set<String> dependencyClasses = entry.getValue().dependencyClasses;
+                    out.writeInt(dependencyClasses.size());
+                    for (String dependencyClass : dependencyClasses) {
+                        out.writeUTF(dependencyClass);
+                    }
+                }
+            }
+            Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive longs using open addressing with linear probing, storing a value in 8 bytes instead of a boxed
+ * value in a hash entry.
+ */
+final class LongHashSet {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Marks free slots. The value itself is tracked separately.
+     */
+    private static final long FREE = 0L;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+
+    private int mask = INITIAL_CAPACITY - 1;
+
+    private int size;
+
+    private boolean containsFree;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     * @return <code>true</code> if the set did not contain the value yet
+     */
+    boolean add(long value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+
+        int index = index(value);
+        long current;
+        while ((current = table[index]) != FREE) {
+            if (current == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        size++;
+        // keep the load factor at most 1/2
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Adds all values of another set.
+     *
+     * @param other the other set
+     */
+    void addAll(LongHashSet other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * @return the number of values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Calls a consumer for every value, in no particular order.
+     *
+     * @param consumer the consumer
+     */
+    void forEach(LongConsumer consumer) {
+        if (containsFree) {
+            consumer.accept(FREE);
+        }
+        for (long value : table) {
+            if (value != FREE) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    private int index(long value) {
+        // murmur3 finalizer, so that the low bits depend on all bits of the value
+        long hash = value ^ (value >>> 33);
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private void rehash() {
+        long[] oldTable = table;
+        table = new long[oldTable.length * 2];
+        mask = table.length - 1;
+        for (long value : oldTable) {
+            if (value != FREE) {
+                int index = index(value);
+                while (table[index] != FREE) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+}
@@ -20,9 +20,10 @@ package org.apache.maven.shared.dependency.analyzer.asm;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.apache.maven.shared.dependency.analyzer.ClassNamePool;
 import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
 import org.objectweb.asm.Type;
 
 /**
@@ -32,7 +33,54 @@ import org.objectweb.asm.Type;
  */
 public class ResultCollector {
 
-    private final Set<DependencyUsage> classUsages = new HashSet<>();
+    /**
+     * Usages as the id of the dependency class in the upper and the id of the using class in the lower 32 bits.
+     */
+    private final LongHashSet classUsages = new LongHashSet();
+
+    private final ClassNamePool classNamePool;
+
+    /**
+     * Optional sink receiving the usages instead of the collector.
+     */
+    private final DependencyUsageSink sink;
+
+    /**
+     * The dependency classes passed to the sink for the last using class.
+     */
+    private final Set<String> lastUsedByDependencies = new HashSet<>();
+
+    private String lastUsedByClass;
+
+    private int lastUsedByClassId;
+
+    /**
+     * <p>Constructor for ResultCollector.</p>
+     */
+    public ResultCollector() {
+        this(new ClassNamePool());
+    }
+
+    /**
+     * <p>Constructor for ResultCollector.</p>
+     *
+     * @param classNamePool the pool of the class names of the collected usages
+     */
+    public ResultCollector(ClassNamePool classNamePool) {
+        this(classNamePool, null);
+    }
+
+    /**
+     * Creates a collector passing the usages to a sink as they are found, instead of collecting them. As the usages of
+     * a class are added in a row, a usage is passed once per visit of the using class.
+     *
+     * @param classNamePool the pool of the class names of the usages
+     * @param sink          the sink, or <code>null</code> to collect the usages
+     */
+    ResultCollector(ClassNamePool classNamePool, DependencyUsageSink sink) {
+        this.classNamePool = classNamePool;
+        this.sink = sink;
+    }
 
     /**
      * <p>getDependencies.</p>
@@ -40,18 +88,44 @@ public class ResultCollector {
      * @return a {@link java.util.Set} object.
      */
     public Set<String> getDependencies() {
-        return getDependencyUsages().stream()
-                .map(DependencyUsage::getDependencyClass)
-                .collect(Collectors.toSet());
+        Set<String> dependencies = new HashSet<>();
+        classUsages.forEach(usage -> dependencies.add(classNamePool.name((int) (usage >>> 32))));
+        return dependencies;
     }
 
     /**
      * <p>getDependencyUsages.</p>
+     * <p>The usages are kept as pairs of class name ids, and materialized in a new set on every call.</p>
      *
      * @return a {@link java.util.Set} object.
      */
     public Set<DependencyUsage> getDependencyUsages() {
-        return classUsages;
+        Set<DependencyUsage> dependencyUsages = new HashSet<>(classUsages.size() * 4 / 3 + 1);
+        classUsages.forEach(usage -> dependencyUsages.add(
+                new DependencyUsage(classNamePool.name((int) (usage >>> 32)), classNamePool.name((int) usage))));
+        return dependencyUsages;
+    }
+
+    /**
+     * Passes the usages to a sink, without materializing them.
+     *
+     * @param sink the sink
+     */
+    void forEachUsage(DependencyUsageSink sink) {
+        classUsages.forEach(
+                usage -> sink.accept(classNamePool.name((int) (usage >>> 32)), classNamePool.name((int) usage)));
+    }
+
+    /**
+     * Adds the usages collected by another collector sharing the same class name pool.
+     *
+     * @param other the other collector
+     */
+    void addAll(ResultCollector other) {
+        if (other.classNamePool != classNamePool) {
+            throw new IllegalArgumentException("Collectors must share their class name pool");
+        }
+        classUsages.addAll(other.classUsages);
     }
 
     /**
@@ -78,7 +152,7 @@ public class ResultCollector {
         }
 
         // decode internal representation
-        add(usedByClass, name.replace('/', '.'));
+        addClass(usedByClass, classNamePool.fromInternalName(name));
     }
 
     void addDesc(final String usedByClass, final String desc) {
@@ -108,9 +182,30 @@ public class ResultCollector {
      * @param name a {@link java.lang.String} object.
      */
     public void add(final String usedByClass, final String name) {
+        addClass(usedByClass, classNamePool.intern(name));
+    }
+
+    private void addClass(final String usedByClass, final String name) {
         // inner classes have equivalent compilation requirement as container class
         if (name.indexOf('$') < 0) {
-            classUsages.add(new DependencyUsage(name, usedByClass));
+            if (sink != null) {
+                // the usages of a class are added in a row
+                if (usedByClass != lastUsedByClass) {
+                    lastUsedByDependencies.clear();
+                    lastUsedByClass = usedByClass;
+                }
+                if (lastUsedByDependencies.add(name)) {
+                    sink.accept(name, usedByClass);
+                }
+                return;
+            }
+
+            // the usages of a class are added in a row
+            if (usedByClass != lastUsedByClass) {
+                lastUsedByClassId = classNamePool.id(usedByClass);
+                lastUsedByClass = usedByClass;
+            }
+            classUsages.add((long) classNamePool.id(name) << 32 | lastUsedByClassId);
         }
     }
 
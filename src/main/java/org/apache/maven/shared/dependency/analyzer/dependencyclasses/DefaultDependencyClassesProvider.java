@@ -26,10 +26,12 @@ import java.net.URL;
 import java.util.Set;
 
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.AnalysisOptions;
 import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
 import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.DependencyClassesProvider;
 import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
 
 abstract class DefaultDependencyClassesProvider implements DependencyClassesProvider {
 
@@ -52,5 +54,24 @@ abstract class DefaultDependencyClassesProvider implements DependencyClassesProv
         return dependencyAnalyzer.analyzeUsages(url, excludedClasses);
     }
 
+    @Override
+    public void getDependencyClasses(MavenProject project, ClassesPatterns excludedClasses, DependencyUsageSink sink)
+            throws IOException {
+        String classesDirectory = getOutputClassesDirectory(project);
+        URL url = new File(classesDirectory).toURI().toURL();
+
+        dependencyAnalyzer.analyzeUsages(url, excludedClasses, sink);
+    }
+
+    @Override
+    public void getDependencyClasses(
+            MavenProject project, ClassesPatterns excludedClasses, AnalysisOptions options, DependencyUsageSink sink)
+            throws IOException {
+        String classesDirectory = getOutputClassesDirectory(project);
+        URL url = new File(classesDirectory).toURI().toURL();
+
+        dependencyAnalyzer.analyzeUsages(url, excludedClasses, options, sink);
+    }
+
     protected abstract String getOutputClassesDirectory(MavenProject project);
 }
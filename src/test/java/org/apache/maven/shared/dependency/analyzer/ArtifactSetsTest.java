@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests <code>ArtifactSets</code>.
+ *
+ * @see ArtifactSets
+ */
+class ArtifactSetsTest {
+
+    private final ArtifactSets artifactSets = new ArtifactSets();
+
+    @Test
+    void testRemoveAllIgnoresVersions() {
+        Artifact a = anArtifact("a", "1.0", "");
+        Artifact b = anArtifact("b", "1.0", "");
+        Artifact c = anArtifact("c", "1.0", "");
+        Set<Artifact> start = new LinkedHashSet<>(Arrays.asList(c, b, a));
+
+        assertThat(artifactSets.removeAll(start, Collections.singleton(anArtifact("b", "2.0", ""))))
+                .containsExactly(c, a);
+    }
+
+    @Test
+    void testRemoveAllComparesClassifiers() {
+        Artifact a = anArtifact("a", "1.0", "");
+        Artifact tests = anArtifact("a", "1.0", "tests");
+        Set<Artifact> start = new LinkedHashSet<>(Arrays.asList(a, tests));
+
+        assertThat(artifactSets.removeAll(start, Collections.singleton(anArtifact("a", "1.0", ""))))
+                .containsExactly(tests);
+        assertThat(artifactSets.removeAll(start, Collections.emptySet())).containsExactly(a, tests);
+    }
+
+    @Test
+    void testConflictId() {
+        Artifact a = anArtifact("a", "1.0", "tests");
+
+        assertThat(artifactSets.conflictId(a))
+                .isEqualTo(a.getDependencyConflictId())
+                .isSameAs(artifactSets.conflictId(a));
+    }
+
+    private static Artifact anArtifact(String artifactId, String version, String classifier) {
+        return new DefaultArtifact(
+                "groupId", artifactId, VersionRange.createFromVersion(version), "compile", "jar", classifier, null);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests <code>CachingDependencyAnalyzer</code>.
+ *
+ * @see CachingDependencyAnalyzer
+ */
+class CachingDependencyAnalyzerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final Set<DependencyUsage> usages = new HashSet<>(Arrays.asList(
+            new DependencyUsage("x.Y", "a.A"), new DependencyUsage("x.Z", "a.A"), new DependencyUsage("x.Y", "b.B")));
+
+    private int analyses;
+
+    private final DependencyAnalyzer delegate = (url, excludeClasses) -> {
+        analyses++;
+        return usages;
+    };
+
+    @Test
+    void testJarIsAnalyzedOnce() throws IOException {
+        URL jar = aJar("content");
+
+        assertThat(analyze(jar, new ClassesPatterns())).isEqualTo(usages);
+        assertThat(analyze(jar, new ClassesPatterns())).isEqualTo(usages);
+        assertThat(analyses).isEqualTo(1);
+    }
+
+    @Test
+    void testExcludedClassesAreFiltered() throws IOException {
+        URL jar = aJar("content");
+        analyze(jar, new ClassesPatterns());
+
+        assertThat(analyze(jar, new ClassesPatterns(Collections.singleton("a\\..*"))))
+                .containsOnly(new DependencyUsage("x.Y", "b.B"));
+        assertThat(usages).hasSize(3);
+    }
+
+    @Test
+    void testChangedJarIsAnalyzedAgain() throws IOException {
+        URL jar = aJar("content");
+        analyze(jar, new ClassesPatterns());
+
+        Files.write(new File(jar.getPath()).toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+        analyze(jar, new ClassesPatterns());
+
+        assertThat(analyses).isEqualTo(2);
+    }
+
+    @Test
+    void testCorruptEntryIsAnalyzedAgain() throws IOException {
+        URL jar = aJar("content");
+        analyze(jar, new ClassesPatterns());
+
+        try (Stream<Path> entries = Files.list(tempDir.resolve("cache"))) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Files.write(entry, "garbage".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(analyze(jar, new ClassesPatterns())).isEqualTo(usages);
+        assertThat(analyses).isEqualTo(2);
+    }
+
+    @Test
+    void testSkipCodeEntriesAreNotSharedWithFullEntries() throws IOException {
+        URL jar = aJar("content");
+        CountingAnalyzer fullAnalyzer = new CountingAnalyzer(false);
+        CountingAnalyzer skipCodeAnalyzer = new CountingAnalyzer(true);
+        File directory = tempDir.resolve("cache").toFile();
+
+        new CachingDependencyAnalyzer(fullAnalyzer, directory).analyzeUsages(jar, new ClassesPatterns());
+        new CachingDependencyAnalyzer(skipCodeAnalyzer, directory).analyzeUsages(jar, new ClassesPatterns());
+        new CachingDependencyAnalyzer(fullAnalyzer, directory).analyzeUsages(jar, new ClassesPatterns());
+        new CachingDependencyAnalyzer(skipCodeAnalyzer, directory).analyzeUsages(jar, new ClassesPatterns());
+
+        assertThat(fullAnalyzer.analyses).isEqualTo(1);
+        assertThat(skipCodeAnalyzer.analyses).isEqualTo(1);
+    }
+
+    @Test
+    void testDirectoryIsNotCached() throws IOException {
+        URL directory = tempDir.toUri().toURL();
+
+        analyze(directory, new ClassesPatterns());
+        analyze(directory, new ClassesPatterns());
+
+        assertThat(analyses).isEqualTo(2);
+    }
+
+    private Set<DependencyUsage> analyze(URL url, ClassesPatterns excludeClasses) throws IOException {
+        return new CachingDependencyAnalyzer(delegate, tempDir.resolve("cache").toFile())
+                .analyzeUsages(url, excludeClasses);
+    }
+
+    private URL aJar(String content) throws IOException {
+        Path jar = Files.createTempFile(tempDir, "test", ".jar");
+        Files.write(jar, content.getBytes(StandardCharsets.UTF_8));
+        return jar.toUri().toURL();
+    }
+
+    private class CountingAnalyzer extends ASMDependencyAnalyzer {
+
+        private int analyses;
+
+        CountingAnalyzer(boolean skipCode) {
+            super(null, false, skipCode);
+        }
+
+        @Override
+        public Set<DependencyUsage> analyzeUsages(URL url, ClassesPatterns excludeClasses) {
+            analyses++;
+            return usages;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests <code>ClassArtifactIndex</code>.
+ *
+ * @see ClassArtifactIndex
+ */
+class ClassArtifactIndexTest {
+
+    private final Artifact a = anArtifact("a");
+
+    private final Artifact b = anArtifact("b");
+
+    private final ClassArtifactIndex index = new ClassArtifactIndex();
+
+    @Test
+    void testGet() {
+        index.put("x.y.Z", a);
+        index.put("x.y.Y", a);
+        index.put("x.Y", b);
+
+        assertThat(index.get("x.y.Z")).isSameAs(a);
+        assertThat(index.get("x.y.Y")).isSameAs(a);
+        assertThat(index.get("x.Y")).isSameAs(b);
+        assertThat(index.get("x.Z")).isNull();
+        assertThat(index.get("x.y.X")).isNull();
+        assertThat(index.get("z.Z")).isNull();
+    }
+
+    @Test
+    void testSimpleNamesWithSameHashCode() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        index.put("com.acme.Aa", a);
+        index.put("x.Aa", a);
+        index.put("x.BB", b);
+
+        assertThat(index.get("com.acme.Aa")).isSameAs(a);
+        assertThat(index.get("com.acme.BB")).isNull();
+        assertThat(index.get("x.Aa")).isSameAs(a);
+        assertThat(index.get("x.BB")).isSameAs(b);
+    }
+
+    @Test
+    void testDefaultPackage() {
+        index.put("Z", a);
+
+        assertThat(index.get("Z")).isSameAs(a);
+        assertThat(index.get("Y")).isNull();
+    }
+
+    @Test
+    void testDuplicateClassFirstWins() {
+        index.put("x.Duplicate", a);
+        index.put("y.Duplicate", a);
+        index.put("x.Duplicate", b);
+        index.put("y.Duplicate", b);
+
+        assertThat(index.get("x.Duplicate")).isSameAs(a);
+        assertThat(index.get("y.Duplicate")).isSameAs(a);
+    }
+
+    @Test
+    void testSplitPackageFirstWins() {
+        index.put("x.Duplicate", a);
+        index.put("x.A", a);
+        index.put("x.Duplicate", b);
+        index.put("x.B", b);
+
+        assertThat(index.get("x.Duplicate")).isSameAs(a);
+        assertThat(index.get("x.A")).isSameAs(a);
+        assertThat(index.get("x.B")).isSameAs(b);
+    }
+
+    @Test
+    void testPutInAnyOrder() {
+        for (int i = 1000; i > 0; i--) {
+            index.put("x.C" + i, i % 2 == 0 ? a : b);
+            index.put("y.C" + i, a);
+        }
+
+        for (int i = 1; i <= 1000; i++) {
+            assertThat(index.get("x.C" + i)).isSameAs(i % 2 == 0 ? a : b);
+            assertThat(index.get("y.C" + i)).isSameAs(a);
+        }
+        assertThat(index.get("x.C0")).isNull();
+
+        index.put("x.C0", a);
+
+        assertThat(index.get("x.C0")).isSameAs(a);
+    }
+
+    @Test
+    void testPutPackagesListsClassesOnLookup() {
+        List<Artifact> listedArtifacts = new ArrayList<>();
+        index.put("x.Y", a);
+        index.putPackages(Arrays.asList("x", "y"), b, action -> {
+            listedArtifacts.add(b);
+            Arrays.asList("x.Y", "x.Z", "y.Z", "z.Z").forEach(action);
+        });
+
+        assertThat(index.get("x.Y")).isSameAs(a);
+        assertThat(index.get("w.Z")).isNull();
+        assertThat(listedArtifacts).isEmpty();
+
+        assertThat(index.get("x.Z")).isSameAs(b);
+        assertThat(index.get("y.Z")).isSameAs(b);
+        assertThat(index.get("y.Y")).isNull();
+        // not in the packages the artifact was added with
+        assertThat(index.get("z.Z")).isNull();
+        assertThat(listedArtifacts).containsExactly(b);
+    }
+
+    @Test
+    void testPutPackagesFirstWins() {
+        index.putPackages(Collections.singleton("x"), a, action -> action.accept("x.Duplicate"));
+        index.put("x.Duplicate", b);
+        index.put("x.B", b);
+
+        assertThat(index.get("x.Duplicate")).isSameAs(a);
+        assertThat(index.get("x.B")).isSameAs(b);
+    }
+
+    @Test
+    void testPutPackagesListingFailure() {
+        index.putPackages(Collections.singleton("x"), a, action -> {
+            throw new IOException("corrupt");
+        });
+
+        assertThatThrownBy(() -> index.get("x.Y"))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage("corrupt");
+    }
+
+    @Test
+    void testPackagesOf() {
+        assertThat(ClassArtifactIndex.packagesOf(Arrays.asList("x.y.Z", "x.y.Y", "x.Z", "Z")))
+                .containsExactlyInAnyOrder("x.y", "x", "");
+    }
+
+    @Test
+    void testPackageOf() {
+        assertThat(ClassArtifactIndex.packageOf("x.y.Z")).isEqualTo("x.y");
+        assertThat(ClassArtifactIndex.packageOf("Z")).isEmpty();
+    }
+
+    private static Artifact anArtifact(String artifactId) {
+        return new DefaultArtifact(
+                "groupId", artifactId, VersionRange.createFromVersion("1.0"), "compile", "jar", "", null);
+    }
+}
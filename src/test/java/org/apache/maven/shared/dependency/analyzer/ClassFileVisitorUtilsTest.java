@@ -27,9 +27,17 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -63,6 +71,39 @@ class ClassFileVisitorUtilsTest {
         }
     }
 
+    private static class ByteCodeVisitor implements ClassFileVisitor {
+        final Map<String, String> byteCode = new HashMap<>();
+
+        @Override
+        public void visitClass(String className, InputStream in) {
+            throw new AssertionError("byte code is expected to be passed as an array");
+        }
+
+        @Override
+        public void visitByteCode(String className, byte[] byteCode) {
+            this.byteCode.put(className, new String(byteCode, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class ExcludingByteCodeVisitor extends ByteCodeVisitor {
+        private final String excludedClass;
+
+        ExcludingByteCodeVisitor(String excludedClass) {
+            this.excludedClass = excludedClass;
+        }
+
+        @Override
+        public void visitByteCode(String className, byte[] byteCode) {
+            assertThat(className).isNotEqualTo(excludedClass);
+            super.visitByteCode(className, byteCode);
+        }
+
+        @Override
+        public boolean isExcluded(String className) {
+            return excludedClass.equals(className);
+        }
+    }
+
     @Test
     void testAcceptJar() throws IOException {
         Path path = Files.createTempFile(tempDir, "test", ".jar");
@@ -80,6 +121,47 @@ class ClassFileVisitorUtilsTest {
         assertThat(visitor.data).contains("class x.y.z");
     }
 
+    @Test
+    void testAcceptJarReadsByteCode() throws IOException {
+        Path path = Files.createTempFile(tempDir, "test", ".jar");
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            // deflated entries are streamed without their size, stored entries have their size in the entry header
+            addZipEntry(out, "a/b/c.class", "class a.b.c");
+            addStoredZipEntry(out, "x/y/z.class", "class x.y.z");
+        }
+
+        ByteCodeVisitor byteCodeVisitor = new ByteCodeVisitor();
+        ClassFileVisitorUtils.accept(path.toUri().toURL(), byteCodeVisitor);
+
+        assertThat(byteCodeVisitor.byteCode).containsOnlyKeys("a.b.c", "x.y.z");
+        assertThat(byteCodeVisitor.byteCode.get("a.b.c")).isEqualTo("class a.b.c");
+        assertThat(byteCodeVisitor.byteCode.get("x.y.z")).isEqualTo("class x.y.z");
+    }
+
+    @Test
+    void testAcceptJarChecksCrcOfByteCodeOnly() throws IOException {
+        Path path = Files.createTempFile(tempDir, "test", ".jar");
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            addStoredZipEntry(out, "a/b/c.class", "class a.b.c");
+        }
+        // corrupt the stored content, keeping its size
+        String content = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+        Files.write(path, content.replace("class a.b.c", "class x.y.z").getBytes(StandardCharsets.ISO_8859_1));
+
+        CollectorClassFileVisitor nameVisitor = new CollectorClassFileVisitor(new ClassesPatterns());
+        ClassFileVisitorUtils.accept(path.toUri().toURL(), nameVisitor);
+
+        assertThat(nameVisitor.getClasses()).containsOnly("a.b.c");
+        try {
+            ClassFileVisitorUtils.accept(path.toUri().toURL(), new ByteCodeVisitor());
+            fail("expected ZipException");
+        } catch (ZipException exception) {
+            assertThat(exception).hasMessageStartingWith("invalid entry CRC");
+        }
+    }
+
     @Test
     void testAcceptJarWithNonClassEntry() throws IOException {
         Path path = Files.createTempFile(tempDir, "test", ".jar");
@@ -111,6 +193,159 @@ class ClassFileVisitorUtilsTest {
         assertThat(visitor.data).contains("class x.y.z");
     }
 
+    @Test
+    void testAcceptDirSkipsExcludedClasses() throws IOException {
+        Path dir = Files.createTempDirectory(tempDir, "d-a-test");
+
+        Path abDir = Files.createDirectories(dir.resolve("a/b"));
+        writeToFile(abDir, "c.class", "class a.b.c");
+
+        Path xyDir = Files.createDirectories(dir.resolve("x/y"));
+        writeToFile(xyDir, "z.class", "class x.y.z");
+
+        ByteCodeVisitor byteCodeVisitor = new ExcludingByteCodeVisitor("x.y.z");
+        ClassFileVisitorUtils.accept(dir.toUri().toURL(), byteCodeVisitor);
+
+        assertThat(byteCodeVisitor.byteCode).containsOnlyKeys("a.b.c");
+    }
+
+    @Test
+    void testAcceptDirSkipsExcludedPackages() throws IOException {
+        Path dir = Files.createTempDirectory(tempDir, "d-a-test");
+
+        Path abDir = Files.createDirectories(dir.resolve("a/b"));
+        writeToFile(abDir, "c.class", "class a.b.c");
+
+        Path xyDir = Files.createDirectories(dir.resolve("x/y"));
+        writeToFile(xyDir, "z.class", "class x.y.z");
+
+        List<String> walkedPackages = new ArrayList<>();
+        TestVisitor packageExcludingVisitor = new TestVisitor() {
+            @Override
+            public boolean isPackageExcluded(String packageName) {
+                walkedPackages.add(packageName);
+                return packageName.equals("x");
+            }
+        };
+        ClassFileVisitorUtils.accept(dir.toUri().toURL(), packageExcludingVisitor);
+
+        assertThat(packageExcludingVisitor.classNames).containsExactly("a.b.c");
+        assertThat(walkedPackages).containsExactlyInAnyOrder("a", "a.b", "x");
+
+        List<TestVisitor> visitors =
+                ClassFileVisitorUtils.accept(dir.toUri().toURL(), () -> new TestVisitor() {
+                    @Override
+                    public boolean isPackageExcluded(String packageName) {
+                        return packageName.equals("x");
+                    }
+                }, Runnable::run);
+
+        assertThat(visitors.stream().flatMap(visitor -> visitor.classNames.stream()))
+                .containsExactly("a.b.c");
+    }
+
+    @Test
+    void testAcceptJarSkipsExcludedClasses() throws IOException {
+        Path path = Files.createTempFile(tempDir, "test", ".jar");
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            addZipEntry(out, "a/b/c.class", "class a.b.c");
+            addZipEntry(out, "x/y/z.class", "class x.y.z");
+        }
+
+        ByteCodeVisitor byteCodeVisitor = new ExcludingByteCodeVisitor("x.y.z");
+        ClassFileVisitorUtils.accept(path.toUri().toURL(), byteCodeVisitor);
+
+        assertThat(byteCodeVisitor.byteCode).containsOnlyKeys("a.b.c");
+    }
+
+    @Test
+    void testAcceptDirReadsByteCode() throws IOException {
+        Path dir = Files.createTempDirectory(tempDir, "d-a-test");
+
+        Path abDir = Files.createDirectories(dir.resolve("a/b"));
+        writeToFile(abDir, "c.class", "class a.b.c");
+
+        ByteCodeVisitor byteCodeVisitor = new ByteCodeVisitor();
+        ClassFileVisitorUtils.accept(dir.toUri().toURL(), byteCodeVisitor);
+
+        assertThat(byteCodeVisitor.byteCode).containsOnlyKeys("a.b.c");
+        assertThat(byteCodeVisitor.byteCode.get("a.b.c")).isEqualTo("class a.b.c");
+    }
+
+    @Test
+    void testAcceptDirInParallel() throws IOException {
+        Path dir = Files.createTempDirectory(tempDir, "d-a-test");
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            Path packageDir = Files.createDirectories(dir.resolve("p" + (i % 7)));
+            writeToFile(packageDir, "C" + i + ".class", "class C" + i);
+            expected.add("p" + (i % 7) + ".C" + i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<TestVisitor> visitors;
+        try {
+            visitors = ClassFileVisitorUtils.accept(dir.toUri().toURL(), TestVisitor::new, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> classNames = new ArrayList<>();
+        visitors.forEach(v -> classNames.addAll(v.classNames));
+
+        assertThat(classNames).hasSize(500).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void testAcceptJarInParallel() throws IOException {
+        Path path = Files.createTempFile(tempDir, "test", ".jar");
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            addZipEntry(out, "a/b/c.class", "class a.b.c");
+        }
+
+        List<TestVisitor> visitors =
+                ClassFileVisitorUtils.accept(path.toUri().toURL(), TestVisitor::new, Runnable::run);
+
+        assertThat(visitors).hasSize(1);
+        assertThat(visitors.get(0).classNames).containsExactly("a.b.c");
+    }
+
+    @Test
+    void testAcceptJarWithResourcesInParallel() throws IOException {
+        Path path = Files.createTempFile(tempDir, "test", ".jar");
+
+        Set<String> expected = new HashSet<>();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < 500; i++) {
+                addZipEntry(out, "p" + (i % 7) + "/C" + i + ".class", "class C" + i);
+                addZipEntry(out, "p" + (i % 7) + "/r" + i + ".txt", "resource " + i);
+                expected.add("p" + (i % 7) + ".C" + i);
+            }
+            addZipEntry(out, "p0/package-info.class", "package p0");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<TestVisitor> visitors;
+        try {
+            visitors = ClassFileVisitorUtils.accept(path.toUri().toURL(), TestVisitor::new, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> classNames = new ArrayList<>();
+        List<String> data = new ArrayList<>();
+        visitors.forEach(v -> {
+            classNames.addAll(v.classNames);
+            data.addAll(v.data);
+        });
+
+        assertThat(classNames).hasSize(500).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(data).contains("class C0", "class C499").noneMatch(line -> line.startsWith("resource"));
+    }
+
     @Test
     void testAcceptDirWithNonClassFile() throws IOException {
         Path dir = Files.createTempDirectory(tempDir, "d-a-test");
@@ -152,6 +387,19 @@ class ClassFileVisitorUtilsTest {
         Files.write(parent.resolve(file), data.getBytes(StandardCharsets.UTF_8));
     }
 
+    private void addStoredZipEntry(JarOutputStream out, String fileName, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        ZipEntry entry = new ZipEntry(fileName);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(bytes, 0, bytes.length);
+    }
+
     private void addZipEntry(JarOutputStream out, String fileName, String content) throws IOException {
         out.putNextEntry(new ZipEntry(fileName));
         byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
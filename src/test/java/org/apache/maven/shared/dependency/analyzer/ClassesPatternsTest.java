@@ -19,9 +19,12 @@
 package org.apache.maven.shared.dependency.analyzer;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -49,4 +52,112 @@ class ClassesPatternsTest {
 
         assertFalse(classesPatterns.isMatch("Test"));
     }
+
+    @Test
+    void literalAndPrefixPatternsTest() {
+        ClassesPatterns classesPatterns =
+                new ClassesPatterns(Arrays.asList("com\\.acme\\.generated\\..*", "com.acme.Main", "org\\.Exact"));
+
+        assertTrue(classesPatterns.isMatch("com.acme.generated.Foo"));
+        assertTrue(classesPatterns.isMatch("com.acme.generated.sub.Foo$1"));
+        assertFalse(classesPatterns.isMatch("com.acme.generated"));
+        assertFalse(classesPatterns.isMatch("com.acme.generatedFoo"));
+        // an unescaped dot matches any character
+        assertTrue(classesPatterns.isMatch("com.acme.Main"));
+        assertTrue(classesPatterns.isMatch("com_acme_Main"));
+        assertFalse(classesPatterns.isMatch("com.acme.Main2"));
+        assertTrue(classesPatterns.isMatch("org.Exact"));
+        assertFalse(classesPatterns.isMatch("org_Exact"));
+        assertFalse(classesPatterns.isMatch("org.Exac"));
+    }
+
+    @Test
+    void packageMatchTest() {
+        ClassesPatterns classesPatterns = new ClassesPatterns(
+                Arrays.asList("com\\.acme\\.generated\\..*", "org.gen.*", "net\\.Main", "io\\..*\\.Test"));
+
+        assertTrue(classesPatterns.isPackageMatch("com.acme.generated"));
+        assertTrue(classesPatterns.isPackageMatch("com.acme.generated.sub"));
+        assertFalse(classesPatterns.isPackageMatch("com.acme"));
+        assertFalse(classesPatterns.isPackageMatch("com.acme.generatedsub"));
+        // an unescaped dot matches any character
+        assertTrue(classesPatterns.isPackageMatch("org.gen"));
+        assertTrue(classesPatterns.isPackageMatch("org_generated"));
+        assertFalse(classesPatterns.isPackageMatch("org"));
+        // literal class names and regular expressions never exclude a whole package
+        assertFalse(classesPatterns.isPackageMatch("net"));
+        assertFalse(classesPatterns.isPackageMatch("io"));
+        assertFalse(new ClassesPatterns().isPackageMatch("com"));
+    }
+
+    @Test
+    void regexPatternsTest() {
+        ClassesPatterns classesPatterns =
+                new ClassesPatterns(Arrays.asList("com\\.acme\\..*Test", "[a-z]+\\.Main", "a\\.*b", "x.+"));
+
+        assertTrue(classesPatterns.isMatch("com.acme.FooTest"));
+        assertFalse(classesPatterns.isMatch("com.acme.FooTests"));
+        assertTrue(classesPatterns.isMatch("app.Main"));
+        assertTrue(classesPatterns.isMatch("a..b"));
+        assertTrue(classesPatterns.isMatch("ab"));
+        assertTrue(classesPatterns.isMatch("xy"));
+        assertFalse(classesPatterns.isMatch("x"));
+    }
+
+    @Test
+    void repeatedLookupsTest() {
+        ClassesPatterns classesPatterns = new ClassesPatterns(Arrays.asList("a\\..*", "[bc]\\.C"));
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(classesPatterns.isMatch("b.B"));
+            assertTrue(classesPatterns.isMatch("b.C"));
+            assertTrue(classesPatterns.isMatch("a.A"));
+            assertFalse(classesPatterns.isMatch("x.X"));
+        }
+    }
+
+    @Test
+    void sameResultsAsRegularExpressionsTest() {
+        List<String> patterns = Arrays.asList(
+                "Test1.*",
+                "io.example.test.Test2",
+                "com\\.acme\\..*",
+                "com\\.acme\\.gen\\.Gen",
+                "com.acme.sub\\..*",
+                "com\\.acme\\.sub\\.Ex.ct",
+                "org\\.Outer\\$Inner",
+                ".*",
+                "",
+                "a\\\\b",
+                "x.*y");
+        List<String> classNames = Arrays.asList(
+                "",
+                "Test1",
+                "Test1.Test2",
+                "io.example.test.Test2",
+                "ioXexample.test.Test2",
+                "com.acme.Foo",
+                "com.acme",
+                "comXacme.sub.Foo",
+                "com.acme.gen.Gen",
+                "com.acme.sub.Exact",
+                "com.acme.sub.Ex\nct",
+                "org.Outer$Inner",
+                "org.Outer.Inner",
+                "a\\b",
+                "x.Foo.y",
+                "line\nbreak",
+                "com.acme.\uD83D\uDE00");
+
+        for (int i = 0; i < patterns.size(); i++) {
+            for (int j = i; j <= patterns.size(); j++) {
+                List<String> subset = patterns.subList(i, j);
+                ClassesPatterns classesPatterns = new ClassesPatterns(subset);
+                for (String className : classNames) {
+                    boolean expected = subset.stream().anyMatch(p -> Pattern.matches(p, className));
+                    assertEquals(expected, classesPatterns.isMatch(className), subset + " " + className);
+                }
+            }
+        }
+    }
 }
@@ -18,17 +18,34 @@
  */
 package org.apache.maven.shared.dependency.analyzer;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.asm.ASMDependencyAnalyzer;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,101 +56,341 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class DefaultProjectDependencyAnalyzerTest {
 
+    @TempDir
+    private Path tempDir;
+
+    private final List<MainDependencyClassesProvider> mainDependencyClassesProviders = new ArrayList<>();
+
+    private final List<TestDependencyClassesProvider> testDependencyClassesProviders = new ArrayList<>();
+
+    private final DefaultProjectDependencyAnalyzer analyzer = new DefaultProjectDependencyAnalyzer(
+            new DefaultClassAnalyzer(), mainDependencyClassesProviders, testDependencyClassesProviders);
+
     @Test
-    void testBuildClassToArtifactMap() {
-        Artifact artifact1 = aTestArtifact("artifact1");
-        Artifact artifact2 = aTestArtifact("artifact2");
+    void testIncludedInJDK() {
+        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("xml-apis", "xml-apis")))
+                .isTrue();
+        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("xerces", "xmlParserAPIs")))
+                .isTrue();
+        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("groupId", "artifactId")))
+                .isFalse();
+    }
 
-        Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<>();
-        artifactClassMap.put(artifact1, Collections.singleton("class1"));
-        artifactClassMap.put(artifact2, Collections.singleton("class2"));
+    @Test
+    @SuppressWarnings("deprecation")
+    void testBuildArtifactClassMapKeepsClasspathOrder() throws IOException {
+        Set<Artifact> artifacts = new LinkedHashSet<>();
+        for (int i = 0; i < 20; i++) {
+            Artifact artifact = aTestArtifact("artifact" + i);
+            artifact.setFile(aJar("artifact" + i, "a/Duplicate.class", "a/Unique" + i + ".class"));
+            artifacts.add(artifact);
+        }
+        MavenProject project = new MavenProject();
+        project.setArtifacts(artifacts);
 
-        Map<String, Artifact> result = DefaultProjectDependencyAnalyzer.buildClassToArtifactMap(artifactClassMap);
+        Map<Artifact, Set<String>> artifactClassMap = analyzer.buildArtifactClassMap(project, new ClassesPatterns());
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get("class1")).isEqualTo(artifact1);
-        assertThat(result.get("class2")).isEqualTo(artifact2);
+        assertThat(artifactClassMap.keySet()).containsExactlyElementsOf(artifacts);
+        assertThat(artifactClassMap.get(artifacts.iterator().next())).containsOnly("a.Duplicate", "a.Unique0");
     }
 
     @Test
-    void testBuildClassToArtifactMapWithDuplicates() {
-        Artifact artifact1 = aTestArtifact("artifact1");
-        Artifact artifact2 = aTestArtifact("artifact2");
+    void testAnalyzeUsesOverriddenArtifactClassMap() throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aJar("a", "a/A.class"));
+        MavenProject project = new MavenProject();
+        project.setArtifacts(Collections.singleton(a));
 
-        Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<>();
-        artifactClassMap.put(artifact1, Collections.singleton("duplicateClass"));
-        artifactClassMap.put(artifact2, Collections.singleton("duplicateClass"));
+        mainDependencyClassesProviders.add((p, e) -> Collections.singleton(new DependencyUsage("x.X", "Main")));
 
-        Map<String, Artifact> result = DefaultProjectDependencyAnalyzer.buildClassToArtifactMap(artifactClassMap);
+        DefaultProjectDependencyAnalyzer customAnalyzer = new DefaultProjectDependencyAnalyzer(
+                new DefaultClassAnalyzer(), mainDependencyClassesProviders, testDependencyClassesProviders) {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected Map<Artifact, Set<String>> buildArtifactClassMap(
+                    MavenProject project, ClassesPatterns excludedClasses) {
+                return Collections.singletonMap(a, Collections.singleton("x.X"));
+            }
+        };
 
-        assertThat(result).hasSize(1);
-        // Should favor the first artifact encountered
-        assertThat(result.get("duplicateClass")).isEqualTo(artifact1);
+        assertThat(customAnalyzer.analyze(project).getUsedUndeclaredArtifactsWithClasses())
+                .containsOnlyKeys(a)
+                .containsValue(Collections.singleton("x.X"));
     }
 
     @Test
-    void testBuildClassToArtifactMapWithMultipleClasses() {
-        Artifact artifact1 = aTestArtifact("artifact1");
+    void testAnalyzeFoldsMultiReleaseEntries() throws Exception {
+        String[] entries = {
+            "a/A.class",
+            "a/package-info.class",
+            "META-INF/versions/11/a/A.class",
+            "META-INF/versions/11/a/Java11.class",
+            "META-INF/versions/17/a/Java17.class",
+            "META-INF/versions/9/module-info.class"
+        };
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Multi-Release", "true");
 
-        Map<Artifact, Set<String>> artifactClassMap = new LinkedHashMap<>();
-        artifactClassMap.put(artifact1, new HashSet<>(Arrays.asList("class1", "class2")));
+        Artifact multiRelease = aTestArtifact("multi-release");
+        multiRelease.setFile(aJar("multi-release", manifest, entries));
+        Artifact notMultiRelease = aTestArtifact("not-multi-release");
+        notMultiRelease.setFile(aJar("not-multi-release", entries));
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(notMultiRelease, multiRelease)));
 
-        Map<String, Artifact> result = DefaultProjectDependencyAnalyzer.buildClassToArtifactMap(artifactClassMap);
+        mainDependencyClassesProviders.add((p, e) -> new HashSet<>(Arrays.asList(
+                new DependencyUsage("a.Java11", "Main"),
+                new DependencyUsage("a.Java17", "Main"),
+                new DependencyUsage("META-INF.versions.11.a.Java11", "Main"),
+                new DependencyUsage("module-info", "Main"))));
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get("class1")).isEqualTo(artifact1);
-        assertThat(result.get("class2")).isEqualTo(artifact1);
+        AnalysisOptions options = new AnalysisOptions().withClassIndexCache(new MemoryClassIndexCache(1024));
+
+        assertThat(analyzer.analyze(project, null, options.withTargetRelease(11))
+                        .getUsedUndeclaredArtifactsWithClasses())
+                .containsOnlyKeys(multiRelease)
+                .containsValue(Collections.singleton("a.Java11"));
+
+        assertThat(analyzer.analyze(project, null, options).getUsedUndeclaredArtifactsWithClasses())
+                .containsOnlyKeys(multiRelease)
+                .containsValue(new HashSet<>(Arrays.asList("a.Java11", "a.Java17")));
     }
 
     @Test
-    void testBuildUsedArtifacts() {
-        Artifact artifact1 = aTestArtifact("artifact1");
-        Map<String, Artifact> classToArtifactMap = Collections.singletonMap("class1", artifact1);
-        Set<DependencyUsage> dependencyClasses = Collections.singleton(new DependencyUsage("class1", "main"));
+    void testAnalyze() throws Exception {
+        ProjectDependencyAnalysis analysis = analyze();
 
-        Map<Artifact, Set<DependencyUsage>> result =
-                DefaultProjectDependencyAnalyzer.buildUsedArtifacts(classToArtifactMap, dependencyClasses);
+        assertThat(analysis.getUsedDeclaredArtifacts()).containsExactly(aTestArtifact("a"));
+        assertThat(analysis.getUsedUndeclaredArtifactsWithClasses())
+                .containsOnlyKeys(aTestArtifact("b"))
+                .containsValue(Collections.singleton("b.B"));
+        assertThat(analysis.getUnusedDeclaredArtifacts()).containsExactly(aTestArtifact("c"));
+        assertThat(analysis.getTestArtifactsWithNonTestScope()).containsExactly(aTestArtifact("b"));
+    }
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(artifact1)).hasSize(1);
-        assertThat(result.get(artifact1).iterator().next().getDependencyClass()).isEqualTo("class1");
+    @Test
+    void testAnalyzeTestOnlyArtifacts() throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aJar("a", "a/A.class", "a/TestA.class"));
+        Artifact b = aTestArtifact("b");
+        b.setFile(aJar("b", "b/B.class"));
+        Artifact c = aTestArtifact("c");
+        c.setFile(aJar("c", "c/C.class"));
+
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(a, b, c)));
+        project.setDependencyArtifacts(new LinkedHashSet<>(Arrays.asList(a, b, c)));
+
+        mainDependencyClassesProviders.add((p, e) -> new HashSet<>(
+                Arrays.asList(new DependencyUsage("a.A", "Main"), new DependencyUsage("b.B", "Main"))));
+        testDependencyClassesProviders.add((p, e) -> new HashSet<>(Arrays.asList(
+                new DependencyUsage("a.TestA", "Test"),
+                new DependencyUsage("b.B", "Test"),
+                new DependencyUsage("c.C", "Test"))));
+
+        ProjectDependencyAnalysis analysis = analyzer.analyze(project);
+
+        assertThat(analysis.getUsedDeclaredArtifacts()).containsExactly(a, b, c);
+        assertThat(analysis.getUsedDeclaredArtifactsWithUsages().get(b))
+                .containsOnly(new DependencyUsage("b.B", "Main"), new DependencyUsage("b.B", "Test"));
+        assertThat(analysis.getTestArtifactsWithNonTestScope()).containsExactly(c);
     }
 
     @Test
-    void testBuildUsedArtifactsWithMultipleClasses() {
-        Artifact artifact1 = aTestArtifact("artifact1");
-        Map<String, Artifact> classToArtifactMap = Collections.singletonMap("class1", artifact1);
-        Set<DependencyUsage> dependencyClasses = new HashSet<>(
-                Arrays.asList(new DependencyUsage("class1", "main"), new DependencyUsage("class1", "test")));
+    void testAnalyzeConcurrently() throws Exception {
+        ProjectDependencyAnalysis expected = analyze();
+        mainDependencyClassesProviders.clear();
+        testDependencyClassesProviders.clear();
 
-        Map<Artifact, Set<DependencyUsage>> result =
-                DefaultProjectDependencyAnalyzer.buildUsedArtifacts(classToArtifactMap, dependencyClasses);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ProjectDependencyAnalysis analysis = analyze(new AnalysisOptions().withExecutor(executor));
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(artifact1)).hasSize(2);
+            assertThat(analysis).isEqualTo(expected);
+            assertThat(analysis.getUsedDeclaredArtifactsWithUsages())
+                    .isEqualTo(expected.getUsedDeclaredArtifactsWithUsages());
+            assertThat(analysis.getUsedUndeclaredArtifactsWithUsages())
+                    .isEqualTo(expected.getUsedUndeclaredArtifactsWithUsages());
+        } finally {
+            executor.shutdown();
+        }
     }
 
     @Test
-    void testBuildUsedArtifactsWithJDKExcluded() {
-        Artifact artifact1 = aTestArtifact("xml-apis", "xml-apis");
-        Map<String, Artifact> classToArtifactMap = Collections.singletonMap("class1", artifact1);
-        Set<DependencyUsage> dependencyClasses = Collections.singleton(new DependencyUsage("class1", "main"));
+    void testAnalyzeAttributesDuplicateClassesToFirstArtifact() throws Exception {
+        Artifact first = aTestArtifact("first");
+        first.setFile(aJar("first", "a/Duplicate.class"));
+        Artifact second = aTestArtifact("second");
+        second.setFile(aJar("second", "a/Duplicate.class", "b/B.class"));
 
-        Map<Artifact, Set<DependencyUsage>> result =
-                DefaultProjectDependencyAnalyzer.buildUsedArtifacts(classToArtifactMap, dependencyClasses);
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(first, second)));
+        project.setDependencyArtifacts(new LinkedHashSet<>(Arrays.asList(first, second)));
 
-        // Being in JDK, it should be excluded from used artifacts
-        assertThat(result).isEmpty();
+        mainDependencyClassesProviders.add(
+                (p, e) -> Collections.singleton(new DependencyUsage("a.Duplicate", "Main")));
+
+        ProjectDependencyAnalysis analysis = analyzer.analyze(project);
+
+        assertThat(analysis.getUsedDeclaredArtifacts()).containsExactly(first);
+        assertThat(analysis.getUnusedDeclaredArtifacts()).containsExactly(second);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(analyzer.analyze(project, null, new AnalysisOptions().withExecutor(executor)))
+                    .isEqualTo(analysis);
+        } finally {
+            executor.shutdown();
+        }
     }
 
     @Test
-    void testIncludedInJDK() {
-        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("xml-apis", "xml-apis")))
-                .isTrue();
-        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("xerces", "xmlParserAPIs")))
-                .isTrue();
-        assertThat(DefaultProjectDependencyAnalyzer.includedInJDK(aTestArtifact("groupId", "artifactId")))
-                .isFalse();
+    void testAnalyzeLazilyReadsClassesOfUsedPackagesOnly() throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aJar("a", "a/A.class"));
+        Artifact b = aTestArtifact("b");
+        b.setFile(aJar("b", "a/A.class", "b/B.class"));
+        Artifact c = aTestArtifact("c");
+        c.setFile(aJar("c", "c/C.class"));
+
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(a, b, c)));
+        project.setDependencyArtifacts(new LinkedHashSet<>(Arrays.asList(a, b, c)));
+
+        mainDependencyClassesProviders.add((p, e) -> new HashSet<>(
+                Arrays.asList(new DependencyUsage("a.A", "Main"), new DependencyUsage("b.B", "Main"))));
+
+        List<File> readJars = new ArrayList<>();
+        ClassIndexCache cache = new MemoryClassIndexCache(1024) {
+            @Override
+            public Set<String> get(File jarFile, int release) {
+                readJars.add(jarFile);
+                return super.get(jarFile, release);
+            }
+        };
+        AnalysisOptions options = new AnalysisOptions().withClassIndexCache(cache).withLazyIndexing(true);
+
+        ProjectDependencyAnalysis expected = analyzer.analyze(project);
+
+        // the JAR files not cached yet are listed
+        assertThat(analyzer.analyze(project, null, options)).isEqualTo(expected);
+        assertThat(readJars).containsExactly(a.getFile(), b.getFile(), c.getFile());
+
+        readJars.clear();
+        ProjectDependencyAnalysis analysis = analyzer.analyze(project, null, options);
+
+        assertThat(analysis).isEqualTo(expected);
+        assertThat(analysis.getUnusedDeclaredArtifacts()).containsExactly(c);
+        assertThat(readJars).containsExactlyInAnyOrder(a.getFile(), b.getFile());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            readJars.clear();
+
+            assertThat(analyzer.analyze(project, null, options.withExecutor(executor)))
+                    .isEqualTo(expected);
+            assertThat(readJars).containsExactlyInAnyOrder(a.getFile(), b.getFile());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeReachableArtifacts() throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aClassJar("a", "a/A", "b/B"));
+        Artifact b = aTestArtifact("b");
+        b.setFile(aClassJar("b", "b/B", "c/C"));
+        Artifact c = aTestArtifact("c");
+        c.setFile(aClassJar("c", "c/C", "java/lang/Object"));
+        Artifact d = aTestArtifact("d");
+        d.setFile(aClassJar("d", "d/D", "c/C"));
+
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(d, c, b, a)));
+
+        mainDependencyClassesProviders.add((p, e) -> Collections.singleton(new DependencyUsage("a.A", "Main")));
+        DependencyAnalyzer transitiveDependencyAnalyzer =
+                new CachingDependencyAnalyzer(new ASMDependencyAnalyzer(), tempDir.toFile());
+
+        assertThat(analyzer.analyzeReachableArtifacts(project, Collections.emptySet(), transitiveDependencyAnalyzer))
+                .containsExactly(c, b, a);
+        assertThat(analyzer.analyzeReachableArtifacts(
+                        project, Collections.singleton("b\\..*"), transitiveDependencyAnalyzer))
+                .containsExactly(a);
+    }
+
+    @Test
+    void testAnalyzeReachableArtifactsThroughInnerClasses() throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aClassJar("a", "a/A", "java/lang/Object", "a/A$Inner", "b/B"));
+        Artifact b = aTestArtifact("b");
+        b.setFile(aClassJar("b", "b/B", "java/lang/Object"));
+
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(a, b)));
+
+        mainDependencyClassesProviders.add((p, e) -> Collections.singleton(new DependencyUsage("a.A", "Main")));
+
+        assertThat(analyzer.analyzeReachableArtifacts(project, Collections.emptySet(), new ASMDependencyAnalyzer()))
+                .containsExactly(a, b);
+    }
+
+    private ProjectDependencyAnalysis analyze() throws Exception {
+        return analyze(new AnalysisOptions());
+    }
+
+    private ProjectDependencyAnalysis analyze(AnalysisOptions options) throws Exception {
+        Artifact a = aTestArtifact("a");
+        a.setFile(aJar("a", "a/A.class"));
+        Artifact b = aTestArtifact("b");
+        b.setFile(aJar("b", "b/B.class"));
+        Artifact c = aTestArtifact("c");
+        c.setFile(aJar("c", "c/C.class"));
+
+        MavenProject project = new MavenProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(a, b, c)));
+        project.setDependencyArtifacts(new LinkedHashSet<>(Arrays.asList(a, c)));
+
+        mainDependencyClassesProviders.add((p, e) -> Collections.singleton(new DependencyUsage("a.A", "Main")));
+        testDependencyClassesProviders.add((p, e) -> new HashSet<>(
+                Arrays.asList(new DependencyUsage("a.A", "Test"), new DependencyUsage("b.B", "Test"))));
+
+        return analyzer.analyze(project, null, options);
+    }
+
+    private File aJar(String name, String... entries) throws IOException {
+        return aJar(name, new Manifest(), entries);
+    }
+
+    private File aJar(String name, Manifest manifest, String... entries) throws IOException {
+        Path path = tempDir.resolve(name + ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+            }
+        }
+        return path.toFile();
+    }
+
+    /**
+     * Creates a JAR file of empty classes, given as pairs of the internal names of a class and its super class.
+     */
+    private File aClassJar(String name, String... classAndSuperNames) throws IOException {
+        Path path = tempDir.resolve(name + ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < classAndSuperNames.length; i += 2) {
+                ClassWriter classWriter = new ClassWriter(0);
+                classWriter.visit(
+                        Opcodes.V1_8, Opcodes.ACC_PUBLIC, classAndSuperNames[i], null, classAndSuperNames[i + 1], null);
+                classWriter.visitEnd();
+
+                out.putNextEntry(new ZipEntry(classAndSuperNames[i] + ".class"));
+                out.write(classWriter.toByteArray());
+            }
+        }
+        return path.toFile();
     }
 
     private Artifact aTestArtifact(String artifactId) {
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests <code>FileClassIndexCache</code>.
+ *
+ * @see FileClassIndexCache
+ */
+class FileClassIndexCacheTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final Set<String> classes = new HashSet<>(Arrays.asList("a.b.C", "x.y.Z"));
+
+    @Test
+    void testPutAndGet() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+
+        assertThat(cache.get(jar)).isNull();
+
+        cache.put(jar, classes);
+
+        assertThat(cache.get(jar)).isEqualTo(classes);
+        assertThat(new FileClassIndexCache(tempDir.resolve("cache").toFile()).get(jar))
+                .isEqualTo(classes);
+    }
+
+    @Test
+    void testEmptyIndex() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+
+        cache.put(jar, Collections.emptySet());
+
+        assertThat(cache.get(jar)).isEmpty();
+    }
+
+    @Test
+    void testMissWhenJarChanged() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+        cache.put(jar, classes);
+
+        Files.write(jar.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    @Test
+    void testMissWhenModificationTimeChanged() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+        cache.put(jar, classes);
+
+        touch(jar);
+
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    @Test
+    void testContentHashHitWhenModificationTimeChanged() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile(), true);
+        cache.put(jar, classes);
+
+        touch(jar);
+
+        assertThat(cache.get(jar)).isEqualTo(classes);
+
+        Files.write(jar.toPath(), "CONTENT".getBytes(StandardCharsets.UTF_8));
+        touch(jar);
+
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    @Test
+    void testEntriesPerRelease() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache cache = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+        Set<String> release11Classes = new HashSet<>(Arrays.asList("a.b.C"));
+
+        cache.put(jar, classes);
+        cache.put(jar, 11, release11Classes);
+
+        assertThat(cache.get(jar)).isEqualTo(classes);
+        assertThat(cache.get(jar, 0)).isEqualTo(classes);
+        assertThat(cache.get(jar, 11)).isEqualTo(release11Classes);
+        assertThat(cache.get(jar, 17)).isNull();
+    }
+
+    @Test
+    void testCorruptEntryIsMiss() throws IOException {
+        File jar = aJar("content");
+        Path cacheDir = tempDir.resolve("cache");
+        FileClassIndexCache cache = new FileClassIndexCache(cacheDir.toFile());
+        cache.put(jar, classes);
+
+        try (Stream<Path> entries = Files.list(cacheDir)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Files.write(entry, "garbage".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    @Test
+    void testTruncatedEntryIsMiss() throws IOException {
+        File jar = aJar("content");
+        Path cacheDir = tempDir.resolve("cache");
+        FileClassIndexCache cache = new FileClassIndexCache(cacheDir.toFile());
+        cache.put(jar, new HashSet<>(Arrays.asList("a.A", "a.B", "a.C")));
+
+        try (Stream<Path> entries = Files.list(cacheDir)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                byte[] content = Files.readAllBytes(entry);
+                Files.write(entry, Arrays.copyOf(content, content.length - 4));
+            }
+        }
+
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    @Test
+    void testPackagesAreReadWithoutClassNames() throws IOException {
+        File jar = aJar("content");
+        Path cacheDir = tempDir.resolve("cache");
+        FileClassIndexCache cache = new FileClassIndexCache(cacheDir.toFile());
+
+        assertThat(cache.getPackages(jar, 0)).isNull();
+
+        cache.put(jar, new HashSet<>(Arrays.asList("a.A", "a.b.B", "C")));
+
+        assertThat(cache.getPackages(jar, 0)).containsExactlyInAnyOrder("a", "a.b", "");
+        assertThat(cache.getPackages(jar, 11)).isNull();
+
+        try (Stream<Path> entries = Files.list(cacheDir)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                byte[] content = Files.readAllBytes(entry);
+                Files.write(entry, Arrays.copyOf(content, content.length - 4));
+            }
+        }
+
+        assertThat(cache.getPackages(jar, 0)).containsExactlyInAnyOrder("a", "a.b", "");
+        assertThat(cache.get(jar)).isNull();
+    }
+
+    private File aJar(String content) throws IOException {
+        Path jar = Files.createTempFile(tempDir, "test", ".jar");
+        Files.write(jar, content.getBytes(StandardCharsets.UTF_8));
+        return jar.toFile();
+    }
+
+    private static void touch(File file) throws IOException {
+        Path path = file.toPath();
+        Files.setLastModifiedTime(
+                path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 60_000));
+    }
+}
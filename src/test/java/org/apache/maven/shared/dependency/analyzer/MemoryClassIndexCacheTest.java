@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests <code>MemoryClassIndexCache</code>.
+ *
+ * @see MemoryClassIndexCache
+ */
+class MemoryClassIndexCacheTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final Set<String> classes = new HashSet<>(Arrays.asList("a.b.C", "x.y.Z"));
+
+    @Test
+    void testPutAndGet() throws IOException {
+        File jar = aJar("content");
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(1024);
+
+        assertThat(cache.get(jar)).isNull();
+
+        cache.put(jar, classes);
+
+        assertThat(cache.get(jar)).isEqualTo(classes).contains("a.b.C").doesNotContain("a.b.D");
+        assertThat(cache.getSize()).isPositive();
+    }
+
+    @Test
+    void testMissWhenJarChanged() throws IOException {
+        File jar = aJar("content");
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(1024);
+        cache.put(jar, classes);
+
+        Files.write(jar.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.get(jar)).isNull();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() throws IOException {
+        File jar1 = aJar("content1");
+        File jar2 = aJar("content2");
+        File jar3 = aJar("content3");
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(Long.MAX_VALUE);
+        cache.put(jar1, classes);
+        long entrySize = cache.getSize();
+
+        cache = new MemoryClassIndexCache(2 * entrySize);
+        cache.put(jar1, classes);
+        cache.put(jar2, classes);
+        cache.get(jar1);
+        cache.put(jar3, classes);
+
+        assertThat(cache.getSize()).isEqualTo(2 * entrySize);
+        assertThat(cache.get(jar1)).isEqualTo(classes);
+        assertThat(cache.get(jar2)).isNull();
+        assertThat(cache.get(jar3)).isEqualTo(classes);
+    }
+
+    @Test
+    void testEntryLargerThanBudgetIsNotKept() throws IOException {
+        File jar = aJar("content");
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(16);
+
+        cache.put(jar, classes);
+
+        assertThat(cache.get(jar)).isNull();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    void testReadThroughDelegate() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache delegate = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+        new MemoryClassIndexCache(1024, delegate).put(jar, classes);
+
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(1024, delegate);
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.get(jar)).isEqualTo(classes);
+        assertThat(cache.getSize()).isPositive();
+    }
+
+    @Test
+    void testEntriesPerRelease() throws IOException {
+        File jar = aJar("content");
+        FileClassIndexCache delegate = new FileClassIndexCache(tempDir.resolve("cache").toFile());
+        Set<String> release11Classes = new HashSet<>(Arrays.asList("a.b.C"));
+        new MemoryClassIndexCache(1024, delegate).put(jar, 11, release11Classes);
+
+        MemoryClassIndexCache cache = new MemoryClassIndexCache(1024, delegate);
+        cache.put(jar, classes);
+
+        assertThat(cache.get(jar)).isEqualTo(classes);
+        assertThat(cache.get(jar, 11)).isEqualTo(release11Classes);
+        assertThat(cache.get(jar, 17)).isNull();
+    }
+
+    private File aJar(String content) throws IOException {
+        Path jar = Files.createTempFile(tempDir, "test", ".jar");
+        Files.write(jar, content.getBytes(StandardCharsets.UTF_8));
+        return jar.toFile();
+    }
+}
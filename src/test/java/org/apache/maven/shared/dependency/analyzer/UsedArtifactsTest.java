@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests <code>UsedArtifacts</code>.
+ *
+ * @see UsedArtifacts
+ */
+class UsedArtifactsTest {
+
+    private final Artifact artifact1 = anArtifact("groupId", "artifact1");
+
+    private final ClassArtifactIndex index = new ClassArtifactIndex();
+
+    @Test
+    void testUsage() {
+        index.put("a.Class1", artifact1);
+        UsedArtifacts usedArtifacts = new UsedArtifacts(index);
+
+        usedArtifacts.addMainUsage("a.Class1", "main");
+        usedArtifacts.addMainUsage("a.Class2", "main");
+
+        assertThat(usedArtifacts.getUsages()).containsOnlyKeys(artifact1);
+        assertThat(usedArtifacts.getUsages().get(artifact1)).containsOnly(new DependencyUsage("a.Class1", "main"));
+        assertThat(usedArtifacts.getTestOnlyArtifacts()).isEmpty();
+    }
+
+    @Test
+    void testMainAndTestUsages() {
+        index.put("a.Class1", artifact1);
+        UsedArtifacts usedArtifacts = new UsedArtifacts(index);
+
+        usedArtifacts.addMainUsage("a.Class1", "main");
+        usedArtifacts.addTestUsage("a.Class1", "test");
+
+        assertThat(usedArtifacts.getUsages().get(artifact1))
+                .containsOnly(new DependencyUsage("a.Class1", "main"), new DependencyUsage("a.Class1", "test"));
+        assertThat(usedArtifacts.getTestOnlyArtifacts()).isEmpty();
+    }
+
+    @Test
+    void testTestOnlyUsage() {
+        index.put("a.Class1", artifact1);
+        UsedArtifacts usedArtifacts = new UsedArtifacts(index);
+
+        usedArtifacts.addTestUsage("a.Class1", "test");
+
+        assertThat(usedArtifacts.getTestOnlyArtifacts()).containsExactly(artifact1);
+    }
+
+    @Test
+    void testJDKArtifactExcluded() {
+        index.put("a.Class1", anArtifact("xml-apis", "xml-apis"));
+        UsedArtifacts usedArtifacts = new UsedArtifacts(index);
+
+        usedArtifacts.addMainUsage("a.Class1", "main");
+
+        // being in JDK, it should be excluded from used artifacts
+        assertThat(usedArtifacts.getUsages()).isEmpty();
+    }
+
+    private static Artifact anArtifact(String groupId, String artifactId) {
+        return new DefaultArtifact(
+                groupId, artifactId, VersionRange.createFromVersion("1.0"), "compile", "jar", "", null);
+    }
+}
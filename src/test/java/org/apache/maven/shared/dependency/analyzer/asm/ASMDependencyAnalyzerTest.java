@@ -20,13 +20,19 @@ package org.apache.maven.shared.dependency.analyzer.asm;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.apache.maven.shared.dependency.analyzer.AnalysisOptions;
 import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
 import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -55,6 +61,86 @@ class ASMDependencyAnalyzerTest {
         assertThat(result).contains("java.util.regex.Pattern");
     }
 
+    @Test
+    void verifyParallelVisitingGivesSameUsages() throws IOException {
+        URL url = Paths.get("target/test-classes").toUri().toURL();
+        Set<DependencyUsage> expected = analyzer.analyzeUsages(url, new ClassesPatterns());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ASMDependencyAnalyzer parallelAnalyzer = new ASMDependencyAnalyzer(executor, false, false);
+
+            assertThat(parallelAnalyzer.analyzeUsages(url, new ClassesPatterns()))
+                    .isNotEmpty()
+                    .isEqualTo(expected);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void verifySinkReceivesSameUsages() throws IOException {
+        URL url = Paths.get("target/test-classes").toUri().toURL();
+        Set<DependencyUsage> expected = analyzer.analyzeUsages(url, new ClassesPatterns());
+
+        Set<DependencyUsage> usages = new HashSet<>();
+        analyzer.analyzeUsages(
+                url,
+                new ClassesPatterns(),
+                (dependencyClass, usedBy) -> usages.add(new DependencyUsage(dependencyClass, usedBy)));
+
+        assertThat(usages).isNotEmpty().isEqualTo(expected);
+    }
+
+    @Test
+    void verifySkipCodeFindsClassesReferencedByInstructions() throws IOException {
+        URL url = Paths.get("target/test-classes").toUri().toURL();
+        Set<String> expected = analyzer.analyze(url);
+
+        ASMDependencyAnalyzer skipCodeAnalyzer = new ASMDependencyAnalyzer(null, false, true);
+        Set<String> dependencyClasses = skipCodeAnalyzer.analyze(url);
+
+        assertThat(expected).containsAll(dependencyClasses);
+        // instantiated and invoked in method bodies only
+        assertThat(dependencyClasses).contains("java.util.concurrent.Executors", "java.nio.file.Paths");
+    }
+
+    @Test
+    void verifyOptionsApplyPerAnalysis() throws IOException {
+        URL url = Paths.get("target/test-classes").toUri().toURL();
+        Set<DependencyUsage> expected =
+                new ASMDependencyAnalyzer(null, false, true).analyzeUsages(url, new ClassesPatterns());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Set<DependencyUsage> usages = new HashSet<>();
+            analyzer.analyzeUsages(
+                    url,
+                    new ClassesPatterns(),
+                    new AnalysisOptions().withExecutor(executor).withSkipCode(true),
+                    (dependencyClass, usedBy) -> usages.add(new DependencyUsage(dependencyClass, usedBy)));
+
+            assertThat(usages).isNotEmpty().isEqualTo(expected);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void verifyReusedVisitorAttributesUsagesToEachClass() throws IOException {
+        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
+        visitor.visitByteCode("Analyzer", byteCodeOf(ASMDependencyAnalyzer.class));
+        visitor.visitByteCode("Collector", byteCodeOf(ResultCollector.class));
+
+        assertThat(visitor.getDependencyUsages())
+                .contains(
+                        new DependencyUsage("javax.inject.Named", "Analyzer"),
+                        new DependencyUsage("org.objectweb.asm.Type", "Collector"))
+                .doesNotContain(
+                        new DependencyUsage("javax.inject.Named", "Collector"),
+                        new DependencyUsage("org.objectweb.asm.Type", "Analyzer"));
+    }
+
     @Test
     void verifyExcludedClasses() throws IOException {
         Path file = Paths.get("target/test-classes/org/apache/maven/shared/dependency/analyzer/testcases/analyze");
@@ -66,4 +152,8 @@ class ASMDependencyAnalyzerTest {
         assertThat(result)
                 .doesNotContain("org.apache.maven.shared.dependency.analyzer.testcases.analyze.ClassToExclude");
     }
+
+    private static byte[] byteCodeOf(Class<?> type) throws IOException {
+        return Files.readAllBytes(Paths.get("target/classes", type.getName().replace('.', '/') + ".class"));
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConstantPoolParserTest {
+
+    @ParameterizedTest
+    @ValueSource(classes = {ClassReader.class, MavenProject.class})
+    void testSameReferencesAsAsm(Class<?> jarClass) throws Exception {
+        File jar = new File(jarClass.getProtectionDomain().getCodeSource().getLocation().toURI());
+        int classes = 0;
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    byte[] byteCode = toByteArray(jarFile.getInputStream(entry));
+                    assertThat(ConstantPoolParser.getConstantPoolClassReferences(byteCode))
+                            .as(entry.getName())
+                            .isEqualTo(getReferences(byteCode));
+                    classes++;
+                }
+            }
+        }
+        assertThat(classes).isPositive();
+    }
+
+    /**
+     * Collects the class references the way the parser did before it scanned descriptors itself.
+     */
+    private static Set<String> getReferences(byte[] byteCode) {
+        ClassReader reader = new ClassReader(byteCode);
+        char[] buffer = new char[reader.getMaxStringLength()];
+        Set<String> result = new HashSet<>();
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            int offset = reader.getItem(i);
+            if (offset == 0) {
+                continue;
+            }
+            byte tag = byteCode[offset - 1];
+            if (tag == ConstantPoolParser.CONSTANT_CLASS) {
+                addClass(result, reader.readUTF8(offset, buffer));
+            } else if (tag == ConstantPoolParser.CONSTANT_NAME_AND_TYPE) {
+                String descriptor = reader.readUTF8(offset + 2, buffer);
+                if (Type.getType(descriptor).getSort() == Type.METHOD) {
+                    addClass(result, Type.getReturnType(descriptor).getInternalName());
+                    for (Type argumentType : Type.getArgumentTypes(descriptor)) {
+                        addClass(result, argumentType.getInternalName());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addClass(Set<String> result, String className) {
+        if (className.indexOf('/') != -1) {
+            result.add(className);
+        }
+    }
+
+    private static byte[] toByteArray(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int i;
+            while ((i = input.read(buffer)) > 0) {
+                out.write(buffer, 0, i);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.maven.shared.dependency.analyzer.ClassesPatterns;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalClassUsagesTest {
+
+    private static final Path TESTCASES =
+            Paths.get("target/test-classes/org/apache/maven/shared/dependency/analyzer/testcases");
+
+    @TempDir
+    private Path tempDir;
+
+    private Path classes;
+
+    private final ASMDependencyAnalyzer analyzer = new ASMDependencyAnalyzer();
+
+    private final ASMDependencyAnalyzer incrementalAnalyzer = new ASMDependencyAnalyzer(null, true, false);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        classes = tempDir.resolve("classes");
+        Files.createDirectories(classes.resolve("analyze"));
+        copy("analyze/AnalyzedClass.class", "analyze/AnalyzedClass.class");
+        copy("analyze/ClassToExclude.class", "analyze/ClassToExclude.class");
+        copy("ArrayCases.class", "analyze/ArrayCases.class");
+    }
+
+    @Test
+    void firstAnalysisIsComplete() throws IOException {
+        URL url = classes.toUri().toURL();
+
+        assertThat(incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns()))
+                .isNotEmpty()
+                .isEqualTo(analyzer.analyzeUsages(url, new ClassesPatterns()));
+        assertThat(tempDir.resolve("dependency-analyzer/classes.state")).isRegularFile();
+    }
+
+    @Test
+    void sinkReceivesSameUsages() throws IOException {
+        URL url = classes.toUri().toURL();
+        Set<DependencyUsage> expected = analyzer.analyzeUsages(url, new ClassesPatterns());
+
+        for (int i = 0; i < 2; i++) {
+            Set<DependencyUsage> usages = new HashSet<>();
+            incrementalAnalyzer.analyzeUsages(
+                    url,
+                    new ClassesPatterns(),
+                    (dependencyClass, usedBy) -> usages.add(new DependencyUsage(dependencyClass, usedBy)));
+
+            assertThat(usages).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void unchangedClassesAreNotVisitedAgain() throws IOException {
+        URL url = classes.toUri().toURL();
+        Set<DependencyUsage> expected = incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns());
+
+        // a corrupt class file with unchanged size and modification time is not read again
+        Path path = classes.resolve("analyze/ArrayCases.class");
+        FileTime lastModified = Files.getLastModifiedTime(path);
+        byte[] corrupt = new byte[(int) Files.size(path)];
+        Files.write(path, corrupt);
+        Files.setLastModifiedTime(path, lastModified);
+
+        assertThat(incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns())).isEqualTo(expected);
+    }
+
+    @Test
+    void changedAndDeletedClassesAreUpdated() throws IOException {
+        URL url = classes.toUri().toURL();
+        incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns());
+
+        Files.delete(classes.resolve("analyze/ClassToExclude.class"));
+        Path path = classes.resolve("analyze/ArrayCases.class");
+        copy("InnerClassCase.class", "analyze/ArrayCases.class");
+        Files.setLastModifiedTime(
+                path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 60_000));
+
+        assertThat(incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns()))
+                .isEqualTo(analyzer.analyzeUsages(url, new ClassesPatterns()));
+    }
+
+    @Test
+    void excludedClassesFollowPatterns() throws IOException {
+        URL url = classes.toUri().toURL();
+        ClassesPatterns excludes = new ClassesPatterns(Collections.singleton("analyze.ClassToExclude"));
+
+        assertThat(incrementalAnalyzer.analyzeUsages(url, excludes))
+                .isEqualTo(analyzer.analyzeUsages(url, excludes));
+        assertThat(incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns()))
+                .isEqualTo(analyzer.analyzeUsages(url, new ClassesPatterns()));
+        assertThat(incrementalAnalyzer.analyzeUsages(url, excludes))
+                .isEqualTo(analyzer.analyzeUsages(url, excludes));
+    }
+
+    @Test
+    void stateOfOtherModeIsNotReused() throws IOException {
+        URL url = classes.toUri().toURL();
+        incrementalAnalyzer.analyzeUsages(url, new ClassesPatterns());
+
+        ASMDependencyAnalyzer skipCodeAnalyzer = new ASMDependencyAnalyzer(null, false, true);
+        ASMDependencyAnalyzer incrementalSkipCodeAnalyzer = new ASMDependencyAnalyzer(null, true, true);
+
+        assertThat(incrementalSkipCodeAnalyzer.analyzeUsages(url, new ClassesPatterns()))
+                .isEqualTo(skipCodeAnalyzer.analyzeUsages(url, new ClassesPatterns()));
+    }
+
+    private void copy(String source, String target) throws IOException {
+        Files.copy(TESTCASES.resolve(source), classes.resolve(target), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.dependency.analyzer.asm;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void testAdd() {
+        LongHashSet set = new LongHashSet();
+
+        assertThat(set.add(42L)).isTrue();
+        assertThat(set.add(42L)).isFalse();
+        assertThat(set.add(0L)).isTrue();
+        assertThat(set.add(0L)).isFalse();
+        assertThat(set.add(-1L)).isTrue();
+
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(values(set)).containsOnly(42L, 0L, -1L);
+    }
+
+    @Test
+    void testSameValuesAsHashSet() {
+        Random random = new Random(0);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            // ids of a pool are small, so that many values collide in their lower bits
+            long value = (long) random.nextInt(500) << 32 | random.nextInt(500);
+            assertThat(set.add(value)).isEqualTo(expected.add(value));
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        assertThat(values(set)).isEqualTo(expected);
+    }
+
+    @Test
+    void testAddAll() {
+        LongHashSet set = new LongHashSet();
+        set.add(1L);
+        set.add(2L);
+        LongHashSet other = new LongHashSet();
+        other.add(2L);
+        other.add(0L);
+
+        set.addAll(other);
+
+        assertThat(values(set)).containsOnly(0L, 1L, 2L);
+    }
+
+    private static Set<Long> values(LongHashSet set) {
+        Set<Long> values = new HashSet<>();
+        set.forEach(values::add);
+        return values;
+    }
+}
@@ -23,8 +23,12 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import org.apache.maven.shared.dependency.analyzer.ClassNamePool;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
 import org.apache.maven.shared.dependency.analyzer.testcases.ArrayCases;
 import org.apache.maven.shared.dependency.analyzer.testcases.InnerClassCase;
 import org.apache.maven.shared.dependency.analyzer.testcases.MethodHandleCases;
@@ -49,6 +53,27 @@ class ResultCollectorTest {
         return visitor.getDependencies();
     }
 
+    @Test
+    void testSinkReceivesUsagesOncePerClass() {
+        List<DependencyUsage> usages = new ArrayList<>();
+        ResultCollector collector = new ResultCollector(
+                new ClassNamePool(),
+                (dependencyClass, usedBy) -> usages.add(new DependencyUsage(dependencyClass, usedBy)));
+
+        collector.add("a.A", "x.X");
+        collector.add("a.A", "x.X");
+        collector.add("a.A", "y.Y$Inner");
+        collector.add("a.A", "y.Y");
+        collector.add("b.B", "x.X");
+
+        assertThat(usages)
+                .containsExactly(
+                        new DependencyUsage("x.X", "a.A"),
+                        new DependencyUsage("y.Y", "a.A"),
+                        new DependencyUsage("x.X", "b.B"));
+        assertThat(collector.getDependencyUsages()).isEmpty();
+    }
+
     @Test
     void testJava11Invoke() throws IOException {
         Path path = Paths.get(
@@ -97,6 +122,22 @@ class ResultCollectorTest {
         }
     }
 
+    @Test
+    void testClassNamesArePooled() {
+        ClassNamePool classNamePool = new ClassNamePool();
+        ResultCollector collector = new ResultCollector(classNamePool);
+
+        collector.addName("a.A", new String("java/lang/String"));
+        collector.addName("b.B", new String("java/lang/String"));
+        collector.addDesc("c.C", "[Ljava/lang/String;");
+        collector.add("d.D", new String("java.lang.String"));
+
+        assertThat(collector.getDependencyUsages()).hasSize(4);
+        String className = classNamePool.intern("java.lang.String");
+        assertThat(collector.getDependencyUsages())
+                .allSatisfy(usage -> assertThat(usage.getDependencyClass()).isSameAs(className));
+    }
+
     @Test
     void testArrayCases() throws IOException {
         Set<String> dependencies = getDependencies(ArrayCases.class);
@@ -24,8 +24,10 @@ import java.util.Set;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.AnalysisOptions;
 import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.DependencyUsage;
+import org.apache.maven.shared.dependency.analyzer.DependencyUsageSink;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -59,4 +61,18 @@ class DefaultMainDependencyClassesProviderTest {
 
         verify(analyzer).analyzeUsages(new File("target/classes").toURI().toURL(), null);
     }
+
+    @Test
+    void optionsArePassedToAnalyzer() throws IOException {
+        MavenProject project = Mockito.mock(MavenProject.class);
+        Build build = Mockito.mock(Build.class);
+        when(project.getBuild()).thenReturn(build);
+        when(build.getOutputDirectory()).thenReturn("target/classes");
+        AnalysisOptions options = new AnalysisOptions().withSkipCode(true);
+        DependencyUsageSink sink = (dependencyClass, usedBy) -> {};
+
+        provider.getDependencyClasses(project, null, options, sink);
+
+        verify(analyzer).analyzeUsages(new File("target/classes").toURI().toURL(), null, options, sink);
+    }
 }